@@ -0,0 +1,154 @@
+/*****************************************************************************
+ * File:    AbstractSchemagenOptions.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.List;
+
+import jena.schemagen;
+
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+
+/**
+ * <p>Base class for implementations of the schemagen options interface, which
+ * maps each of the named option accessors used by {@link schemagen} onto a small
+ * set of generic lookups by {@link schemagen.SchemagenOptions.OPT option}. The
+ * mapping is the same as in {@link schemagen.SchemagenOptionsImpl}, so the
+ * subclasses need only decide how the option values are stored.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public abstract class AbstractSchemagenOptions
+    implements schemagen.SchemagenOptions
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    public boolean hasConfigFileOption() { return hasValue( OPT.CONFIG_FILE ); }
+    public String getConfigFileOption() { return getStringValue( OPT.CONFIG_FILE ); }
+    public boolean hasRootOption() { return hasValue( OPT.ROOT ); }
+    public String getRootOption() { return getStringValue( OPT.ROOT ); }
+    public boolean hasNoCommentsOption() { return isTrue( OPT.NO_COMMENTS ); }
+    public String getNoCommentsOption() { return getStringValue( OPT.NO_COMMENTS ); }
+    public boolean hasInputOption() { return hasValue( OPT.INPUT ); }
+    public Resource getInputOption() { return getResource( OPT.INPUT ); }
+    public boolean hasLangDamlOption() { return isTrue( OPT.LANG_DAML ); }
+    public String getLangDamlOption() { return getStringValue( OPT.LANG_DAML ); }
+    public boolean hasLangOwlOption() { return isTrue( OPT.LANG_OWL ); }
+    public String getLangOwlOption() { return getStringValue( OPT.LANG_OWL ); }
+    public boolean hasLangRdfsOption() { return isTrue( OPT.LANG_RDFS ); }
+    public String getLangRdfsOption() { return getStringValue( OPT.LANG_RDFS ); }
+    public boolean hasOutputOption() { return hasValue( OPT.OUTPUT ); }
+    public String getOutputOption() { return getStringValue( OPT.OUTPUT ); }
+    public boolean hasHeaderOption() { return isTrue( OPT.HEADER ); }
+    public String getHeaderOption() { return getStringValue( OPT.HEADER ); }
+    public boolean hasFooterOption() { return isTrue( OPT.FOOTER ); }
+    public String getFooterOption() { return getStringValue( OPT.FOOTER ); }
+    public boolean hasMarkerOption() { return hasValue( OPT.MARKER ); }
+    public String getMarkerOption() { return getStringValue( OPT.MARKER ); }
+    public boolean hasPackagenameOption() { return hasValue( OPT.PACKAGENAME ); }
+    public String getPackagenameOption() { return getStringValue( OPT.PACKAGENAME ); }
+    public boolean hasOntologyOption() { return isTrue( OPT.ONTOLOGY ); }
+    public String getOntologyOption() { return getStringValue( OPT.ONTOLOGY ); }
+    public boolean hasClassnameOption() { return hasValue( OPT.CLASSNAME ); }
+    public String getClassnameOption() { return getStringValue( OPT.CLASSNAME ); }
+    public boolean hasClassdecOption() { return hasValue( OPT.CLASSDEC ); }
+    public String getClassdecOption() { return getStringValue( OPT.CLASSDEC ); }
+    public boolean hasNamespaceOption() { return hasValue( OPT.NAMESPACE ); }
+    public Resource getNamespaceOption() { return getResource( OPT.NAMESPACE ); }
+    public boolean hasDeclarationsOption() { return hasValue( OPT.DECLARATIONS ); }
+    public String getDeclarationsOption() { return getStringValue( OPT.DECLARATIONS ); }
+    public boolean hasPropertySectionOption() { return hasValue( OPT.PROPERTY_SECTION ); }
+    public String getPropertySectionOption() { return getStringValue( OPT.PROPERTY_SECTION ); }
+    public boolean hasClassSectionOption() { return hasValue( OPT.CLASS_SECTION ); }
+    public String getClassSectionOption() { return getStringValue( OPT.CLASS_SECTION ); }
+    public boolean hasIndividualsSectionOption() { return hasValue( OPT.INDIVIDUALS_SECTION ); }
+    public String getIndividualsSectionOption() { return getStringValue( OPT.INDIVIDUALS_SECTION ); }
+    public boolean hasNopropertiesOption() { return isTrue( OPT.NOPROPERTIES ); }
+    public boolean hasNoclassesOption() { return isTrue( OPT.NOCLASSES ); }
+    public boolean hasNoindividualsOption() { return isTrue( OPT.NOINDIVIDUALS ); }
+    public boolean hasPropTemplateOption() { return hasValue( OPT.PROP_TEMPLATE ); }
+    public String getPropTemplateOption() { return getStringValue( OPT.PROP_TEMPLATE ); }
+    public boolean hasClassTemplateOption() { return hasValue( OPT.CLASS_TEMPLATE ); }
+    public String getClassTemplateOption() { return getStringValue( OPT.CLASS_TEMPLATE ); }
+    public boolean hasIndividualTemplateOption() { return hasValue( OPT.INDIVIDUAL_TEMPLATE ); }
+    public String getIndividualTemplateOption() { return getStringValue( OPT.INDIVIDUAL_TEMPLATE ); }
+    public boolean hasUcNamesOption() { return isTrue( OPT.UC_NAMES ); }
+    public boolean hasIncludeOption() { return hasValue( OPT.INCLUDE ); }
+    public List<String> getIncludeOption() { return getAllValues( OPT.INCLUDE ); }
+    public boolean hasClassnameSuffixOption() { return hasValue( OPT.CLASSNAME_SUFFIX ); }
+    public String getClassnameSuffixOption() { return getStringValue( OPT.CLASSNAME_SUFFIX ); }
+    public boolean hasNoheaderOption() { return isTrue( OPT.NOHEADER ); }
+    public boolean hasEncodingOption() { return hasValue( OPT.ENCODING ); }
+    public String getEncodingOption() { return getStringValue( OPT.ENCODING ); }
+    public boolean hasHelpOption() { return hasValue( OPT.HELP ); }
+    public String getHelpOption() { return getStringValue( OPT.HELP ); }
+    public boolean hasDosOption() { return isTrue( OPT.DOS ); }
+    public boolean hasUseInfOption() { return isTrue( OPT.USE_INF ); }
+    public boolean hasStrictIndividualsOption() { return isTrue( OPT.STRICT_INDIVIDUALS ); }
+    public boolean hasIncludeSourceOption() { return isTrue( OPT.INCLUDE_SOURCE ); }
+    public boolean hasNoStrictOption() { return isTrue( OPT.NO_STRICT ); }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Answer true if the given option is set to true */
+    protected abstract boolean isTrue( OPT option );
+
+    /** Answer true if the given option has value */
+    protected abstract boolean hasValue( OPT option );
+
+    /** Answer the value of the option or null */
+    protected abstract RDFNode getValue( OPT option );
+
+    /** Answer the String value of the option or null */
+    protected abstract String getStringValue( OPT option );
+
+    /** Answer true if the given option has a resource value */
+    protected abstract boolean hasResourceValue( OPT option );
+
+    /** Answer the value of the option or null */
+    protected abstract Resource getResource( OPT option );
+
+    /** Answer all values for the given options as Strings */
+    protected abstract List<String> getAllValues( OPT option );
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
@@ -0,0 +1,154 @@
+/*****************************************************************************
+ * File:    BufferedLog.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+
+/**
+ * <p>A maven {@link Log} that holds on to the messages logged while one input
+ * is being translated, so that they can be written to the real log in one
+ * block when translations are running concurrently. The enabled levels are
+ * taken from the log that the messages will eventually be written to.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class BufferedLog
+    implements Log
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final int DEBUG = 0;
+    protected static final int INFO = 1;
+    protected static final int WARN = 2;
+    protected static final int ERROR = 3;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The log that the buffered messages will be written to */
+    private Log target;
+
+    /** The buffered messages, in the order they were logged */
+    private List<Message> messages = new ArrayList<Message>();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    public BufferedLog( Log target ) {
+        this.target = target;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Write the buffered messages to the target log, and clear the buffer
+     */
+    public synchronized void flush() {
+        for (Message m: messages) {
+            m.writeTo( target );
+        }
+        messages.clear();
+    }
+
+    public boolean isDebugEnabled() { return target.isDebugEnabled(); }
+    public void debug( CharSequence content ) { add( DEBUG, content, null ); }
+    public void debug( CharSequence content, Throwable error ) { add( DEBUG, content, error ); }
+    public void debug( Throwable error ) { add( DEBUG, null, error ); }
+
+    public boolean isInfoEnabled() { return target.isInfoEnabled(); }
+    public void info( CharSequence content ) { add( INFO, content, null ); }
+    public void info( CharSequence content, Throwable error ) { add( INFO, content, error ); }
+    public void info( Throwable error ) { add( INFO, null, error ); }
+
+    public boolean isWarnEnabled() { return target.isWarnEnabled(); }
+    public void warn( CharSequence content ) { add( WARN, content, null ); }
+    public void warn( CharSequence content, Throwable error ) { add( WARN, content, error ); }
+    public void warn( Throwable error ) { add( WARN, null, error ); }
+
+    public boolean isErrorEnabled() { return target.isErrorEnabled(); }
+    public void error( CharSequence content ) { add( ERROR, content, null ); }
+    public void error( CharSequence content, Throwable error ) { add( ERROR, content, error ); }
+    public void error( Throwable error ) { add( ERROR, null, error ); }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected synchronized void add( int level, CharSequence content, Throwable error ) {
+        messages.add( new Message( level, content, error ) );
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * One buffered log message
+     */
+    protected static class Message
+    {
+        private int level;
+        private CharSequence content;
+        private Throwable error;
+
+        protected Message( int level, CharSequence content, Throwable error ) {
+            this.level = level;
+            this.content = content;
+            this.error = error;
+        }
+
+        protected void writeTo( Log log ) {
+            switch (level) {
+                case DEBUG:
+                    if (error == null) { log.debug( content ); }
+                    else if (content == null) { log.debug( error ); }
+                    else { log.debug( content, error ); }
+                    break;
+                case INFO:
+                    if (error == null) { log.info( content ); }
+                    else if (content == null) { log.info( error ); }
+                    else { log.info( content, error ); }
+                    break;
+                case WARN:
+                    if (error == null) { log.warn( content ); }
+                    else if (content == null) { log.warn( error ); }
+                    else { log.warn( content, error ); }
+                    break;
+                default:
+                    if (error == null) { log.error( content ); }
+                    else if (content == null) { log.error( error ); }
+                    else { log.error( content, error ); }
+                    break;
+            }
+        }
+    }
+}
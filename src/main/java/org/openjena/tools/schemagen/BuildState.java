@@ -0,0 +1,492 @@
+/*****************************************************************************
+ * File:    BuildState.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import jena.schemagen.SchemagenOptions.OPT;
+
+import com.hp.hpl.jena.Jena;
+
+
+/**
+ * <p>Persistent manifest of the state of the inputs at the time their Java
+ * outputs were last generated. For each input, the manifest records a digest
+ * of the input content, a digest of the effective options, and the Java files
+ * that were generated. The manifest as a whole records the version of the
+ * plugin and of Jena that produced it. An input is <em>stale</em>, i.e. needs
+ * to be translated again, unless all of these are unchanged and the recorded
+ * outputs still exist.
+ * </p>
+ * <p>Each input is only checked against its own state. Schemagen does not load
+ * the documents that an input imports, so the output of one input never depends
+ * on the content of another, and a change to one input never makes another
+ * stale.
+ * </p>
+ * <p>The manifest is stored in a compact binary form in the project build
+ * directory, in a file of its own for each execution of the plugin, so that
+ * one execution never removes the outputs of another. When the outputs of an
+ * input change, for example because its class name has changed, the previous
+ * outputs are returned to be deleted. A manifest from a different format or
+ * tool version is discarded.
+ * The methods that query and update the state may be called concurrently from
+ * translation tasks running in parallel.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class BuildState
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Name of the file, in the project build directory, that holds the state */
+    public static final String STATE_FILE_NAME = "schemagen-state.bin";
+
+    /** Prefix of the name of the file that holds the state of one execution */
+    public static final String STATE_FILE_PREFIX = "schemagen-state-";
+
+    /** Marker at the start of a manifest file */
+    protected static final int MAGIC = 0x53474d46;
+
+    /** Version of the manifest file format */
+    protected static final int FORMAT_VERSION = 3;
+
+    /** Digest algorithm used for both option and content digests */
+    protected static final String DIGEST_ALGORITHM = "SHA-1";
+
+    /** Resource giving the version of this plugin, when packaged */
+    protected static final String POM_PROPERTIES = "/META-INF/maven/org.openjena.tools/schemagen/pom.properties";
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /** Cached tool version string */
+    private static String toolVersion;
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The file the state is loaded from and saved to */
+    private File stateFile;
+
+    /** The recorded state, keyed by input name */
+    private Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /** True if the state has changed since it was loaded */
+    private boolean modified = false;
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    public BuildState( File stateFile ) {
+        this.stateFile = stateFile;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Load the recorded state, if any. A missing state file, or one written by
+     * a different version of the tools, is not an error: it just means that
+     * every input will be regarded as stale.
+     * @throws IOException If the state file exists but cannot be read
+     */
+    public synchronized void load() throws IOException {
+        entries.clear();
+        modified = false;
+
+        if (!stateFile.isFile()) {
+            return;
+        }
+
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( stateFile ) ) );
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION ||
+                !getToolVersion().equals( in.readUTF() )) {
+                // written by something else, so start again
+                modified = true;
+                return;
+            }
+
+            int n = in.readInt();
+            for (int i = 0;  i < n;  i++) {
+                Entry e = new Entry();
+                String key = in.readUTF();
+                e.contentDigest = readBytes( in );
+                e.optionsDigest = readBytes( in );
+                readStrings( in, e.outputs );
+                entries.put( key, e );
+            }
+        }
+        catch (EOFException e) {
+            // truncated manifest, so ignore what we have read
+            entries.clear();
+            modified = true;
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Save the recorded state, if it has changed since it was loaded
+     * @throws IOException If the state file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+
+        File dir = stateFile.getParentFile();
+        if (dir != null && !dir.exists()) {
+            dir.mkdirs();
+        }
+
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( stateFile ) ) );
+        try {
+            out.writeInt( MAGIC );
+            out.writeInt( FORMAT_VERSION );
+            out.writeUTF( getToolVersion() );
+            out.writeInt( entries.size() );
+            for (Map.Entry<String, Entry> me: entries.entrySet()) {
+                Entry e = me.getValue();
+                out.writeUTF( me.getKey() );
+                writeBytes( out, e.contentDigest );
+                writeBytes( out, e.optionsDigest );
+                writeStrings( out, e.outputs );
+            }
+        }
+        finally {
+            out.close();
+        }
+        modified = false;
+    }
+
+    /**
+     * Return true if the given input needs to be translated again.
+     *
+     * @param key The name of the input, as returned by the file matcher
+     * @param input The input file
+     * @param optionsDigest The digest of the effective options for the input
+     * @return True if the input or its options have changed, or any of its
+     * outputs are missing
+     * @throws IOException If the content of the input cannot be read
+     */
+    public boolean isStale( String key, File input, String optionsDigest )
+        throws IOException
+    {
+        return isStale( key, digest( input ), optionsDigest );
+    }
+
+    /**
+     * Return true if the given input needs to be translated again, given a
+     * digest of its current content
+     *
+     * @param key The name of the input, as returned by the file matcher
+     * @param contentDigest The digest of the content of the input, as given by {@link #digest(File)}
+     * @param optionsDigest The digest of the effective options for the input
+     * @return True if the input or its options have changed, or any of its
+     * outputs are missing
+     */
+    public boolean isStale( String key, String contentDigest, String optionsDigest ) {
+        Entry e = getEntry( key );
+        if (e == null || e.outputs.isEmpty() || !Arrays.equals( e.optionsDigest, fromHex( optionsDigest ) )) {
+            return true;
+        }
+        for (String output: e.outputs) {
+            if (!new File( output ).isFile()) {
+                return true;
+            }
+        }
+        return !Arrays.equals( e.contentDigest, fromHex( contentDigest ) );
+    }
+
+    /**
+     * Record that the given input has been successfully translated
+     *
+     * @param key The name of the input, as returned by the file matcher
+     * @param input The input file
+     * @param optionsDigest The digest of the effective options for the input
+     * @param outputs The files generated from the input
+     * @return The previous outputs of the input that it no longer generates
+     * @throws IOException If the content of the input cannot be read
+     */
+    public List<File> recordGeneration( String key, File input, String optionsDigest, List<File> outputs )
+        throws IOException
+    {
+        return recordGeneration( key, digest( input ), optionsDigest, outputs );
+    }
+
+    /**
+     * Record that the given input has been successfully translated, given a
+     * digest of the content that was translated
+     *
+     * @param key The name of the input, as returned by the file matcher
+     * @param contentDigest The digest of the content of the input, as given by {@link #digest(File)}
+     * @param optionsDigest The digest of the effective options for the input
+     * @param outputs The files generated from the input
+     * @return The previous outputs of the input that it no longer generates,
+     * excluding any that are outputs of other inputs
+     */
+    public synchronized List<File> recordGeneration( String key, String contentDigest, String optionsDigest, List<File> outputs ) {
+        Entry e = new Entry();
+        e.contentDigest = fromHex( contentDigest );
+        e.optionsDigest = fromHex( optionsDigest );
+        for (File output: outputs) {
+            e.outputs.add( output.getAbsolutePath() );
+        }
+        Entry previous = getEntry( key );
+        putEntry( key, e );
+
+        List<File> replaced = new ArrayList<File>();
+        if (previous != null) {
+            Set<String> retained = new HashSet<String>();
+            for (Entry other: entries.values()) {
+                retained.addAll( other.outputs );
+            }
+            for (String output: previous.outputs) {
+                if (!retained.contains( output )) {
+                    replaced.add( new File( output ) );
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Forget the inputs that are not in the given collection of current inputs,
+     * and return the outputs that were generated from them, excluding any that
+     * are also outputs of current inputs.
+     *
+     * @param currentInputs The names of the inputs in this build
+     * @return The outputs of inputs that no longer exist
+     */
+    public synchronized List<File> removeObsolete( Collection<String> currentInputs ) {
+        Set<String> current = new HashSet<String>( currentInputs );
+        Set<String> retained = new HashSet<String>();
+        Set<String> obsolete = new TreeSet<String>();
+
+        for (Iterator<Map.Entry<String, Entry>> i = entries.entrySet().iterator(); i.hasNext(); ) {
+            Map.Entry<String, Entry> me = i.next();
+            if (current.contains( me.getKey() )) {
+                retained.addAll( me.getValue().outputs );
+            }
+            else {
+                obsolete.addAll( me.getValue().outputs );
+                i.remove();
+                modified = true;
+            }
+        }
+
+        List<File> files = new ArrayList<File>();
+        for (String output: obsolete) {
+            if (!retained.contains( output )) {
+                files.add( new File( output ) );
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Return the name of the file that holds the state of the given execution
+     * of the plugin
+     *
+     * @param executionId The id of the execution, or null if not known
+     * @return The name of the state file, in the project build directory
+     */
+    public static String stateFileName( String executionId ) {
+        if (executionId == null || executionId.length() == 0) {
+            return STATE_FILE_NAME;
+        }
+        return STATE_FILE_PREFIX + executionId.replaceAll( "[^A-Za-z0-9._-]", "_" ) + ".bin";
+    }
+
+    /**
+     * Return a digest of the effective values of all of the options in the given
+     * options object, other than the input itself, together with any other
+     * settings that change the generated output.
+     *
+     * @param so An options object, including its parents
+     * @param settings Other settings that affect the output, such as plugin
+     * parameters that are not schemagen options
+     * @return The options digest as a hex string
+     */
+    public static String optionsDigest( SchemagenOptions so, String... settings ) {
+        MessageDigest md = newDigest();
+        for (OPT opt: OPT.values()) {
+            if (opt == OPT.INPUT) {
+                continue;
+            }
+            List<String> values = so.getAllValues( opt );
+            if (!values.isEmpty()) {
+                update( md, opt.name() );
+                for (String v: values) {
+                    update( md, v );
+                }
+            }
+        }
+        for (String s: settings) {
+            update( md, s );
+        }
+        return toHex( md.digest() );
+    }
+
+    /**
+     * Return a digest of the content of the given file
+     * @param file The file to digest
+     * @return The content digest as a hex string
+     * @throws IOException If the file cannot be read
+     */
+    public static String digest( File file ) throws IOException {
+        MessageDigest md = newDigest();
+        InputStream in = new FileInputStream( file );
+        try {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read( buf )) > 0) {
+                md.update( buf, 0, n );
+            }
+        }
+        finally {
+            in.close();
+        }
+        return toHex( md.digest() );
+    }
+
+    /**
+     * Return a string identifying the version of this plugin and of Jena. A
+     * change in either invalidates all recorded state.
+     * @return The tool version
+     */
+    public static synchronized String getToolVersion() {
+        if (toolVersion == null) {
+            String pluginVersion = "unknown";
+            InputStream in = BuildState.class.getResourceAsStream( POM_PROPERTIES );
+            if (in != null) {
+                try {
+                    Properties p = new Properties();
+                    p.load( in );
+                    pluginVersion = p.getProperty( "version", pluginVersion );
+                    in.close();
+                }
+                catch (IOException ignore) {
+                    // version stays unknown
+                }
+            }
+            toolVersion = "schemagen-maven " + pluginVersion + "; jena " + Jena.VERSION;
+        }
+        return toolVersion;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected synchronized Entry getEntry( String key ) {
+        return entries.get( key );
+    }
+
+    protected synchronized void putEntry( String key, Entry e ) {
+        entries.put( key, e );
+        modified = true;
+    }
+
+    protected static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance( DIGEST_ALGORITHM );
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException( "No " + DIGEST_ALGORITHM + " digest available", e );
+        }
+    }
+
+    /** Add a string, and a separator, to the digest */
+    protected static void update( MessageDigest md, String s ) {
+        try {
+            md.update( s.getBytes( "UTF-8" ) );
+            md.update( (byte) 0 );
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    protected static String toHex( byte[] bytes ) {
+        StringBuilder buf = new StringBuilder( bytes.length * 2 );
+        for (byte b: bytes) {
+            buf.append( Character.forDigit( (b >> 4) & 0xf, 16 ) );
+            buf.append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return buf.toString();
+    }
+
+    protected static byte[] fromHex( String hex ) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0;  i < bytes.length;  i++) {
+            bytes[i] = (byte) Integer.parseInt( hex.substring( 2 * i, 2 * i + 2 ), 16 );
+        }
+        return bytes;
+    }
+
+    protected static byte[] readBytes( DataInputStream in ) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedByte()];
+        in.readFully( bytes );
+        return bytes;
+    }
+
+    protected static void writeBytes( DataOutputStream out, byte[] bytes ) throws IOException {
+        out.writeByte( bytes.length );
+        out.write( bytes );
+    }
+
+    protected static void readStrings( DataInputStream in, List<String> strings ) throws IOException {
+        int n = in.readShort();
+        for (int i = 0;  i < n;  i++) {
+            strings.add( in.readUTF() );
+        }
+    }
+
+    protected static void writeStrings( DataOutputStream out, List<String> strings ) throws IOException {
+        out.writeShort( strings.size() );
+        for (String s: strings) {
+            out.writeUTF( s );
+        }
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * The recorded state of one input
+     */
+    protected static class Entry
+    {
+        protected byte[] contentDigest;
+        protected byte[] optionsDigest;
+        protected List<String> outputs = new ArrayList<String>();
+    }
+}
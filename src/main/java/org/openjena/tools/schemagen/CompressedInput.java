@@ -0,0 +1,134 @@
+/*****************************************************************************
+ * File:    CompressedInput.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+
+/**
+ * <p>Support for inputs that are stored compressed, such as
+ * <code>vocab.ttl.gz</code> or <code>vocab.rdf.bz2</code>. The compression
+ * is recognised from the last extension of the file name, and the input is
+ * decompressed as it is parsed, without writing the decompressed content to
+ * disk. The input is otherwise treated as if it were the uncompressed file,
+ * named without the compression extension: its RDF syntax is found from the
+ * remaining extension, and the generated class is named from the remaining
+ * file name.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class CompressedInput
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Extension of gzip compressed inputs */
+    public static final String GZIP = ".gz";
+
+    /** Extension of bzip2 compressed inputs */
+    public static final String BZIP2 = ".bz2";
+
+    /** Size of the buffer between the file and the decompressor */
+    protected static final int BUFFER_SIZE = 64 * 1024;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return the compression extension of the given name or URI
+     * @param name A file name or URI
+     * @return {@link #GZIP}, {@link #BZIP2}, or null if the name is not
+     * that of a compressed input
+     */
+    public static String getCompression( String name ) {
+        String lower = name.toLowerCase();
+        if (lower.endsWith( GZIP )) {
+            return GZIP;
+        }
+        if (lower.endsWith( BZIP2 )) {
+            return BZIP2;
+        }
+        return null;
+    }
+
+    /**
+     * Return true if the given name or URI is that of a compressed input
+     * @param name A file name or URI
+     * @return True if the input is compressed
+     */
+    public static boolean isCompressed( String name ) {
+        return getCompression( name ) != null;
+    }
+
+    /**
+     * Return the name of the uncompressed input
+     * @param name A file name or URI
+     * @return The name without any compression extension
+     */
+    public static String stripCompression( String name ) {
+        String compression = getCompression( name );
+        return (compression == null) ? name : name.substring( 0, name.length() - compression.length() );
+    }
+
+    /**
+     * Return a stream that decompresses the given stream, according to the
+     * compression extension of the given name
+     * @param in The compressed content
+     * @param name The name of the compressed input
+     * @return A stream of the uncompressed content, or the given stream if
+     * the name is not that of a compressed input
+     * @throws IOException If the compressed content cannot be read
+     */
+    public static InputStream decompress( InputStream in, String name ) throws IOException {
+        String compression = getCompression( name );
+        if (GZIP.equals( compression )) {
+            return new GZIPInputStream( in, BUFFER_SIZE );
+        }
+        if (BZIP2.equals( compression )) {
+            // concatenated streams, as written by pbzip2, are read in full
+            return new BZip2CompressorInputStream( new BufferedInputStream( in, BUFFER_SIZE ), true );
+        }
+        return in;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
@@ -0,0 +1,358 @@
+/*****************************************************************************
+ * File:    FileDiscovery.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.codehaus.plexus.util.SelectorUtils;
+
+
+/**
+ * <p>Finds the files below a base directory that match a set of Ant-style
+ * include patterns, and none of a set of exclude patterns, with the same
+ * matching rules as the plexus <code>DirectoryScanner</code>. Rather than
+ * walking the whole of the base directory, only the directories named by the
+ * literal leading segments of the include patterns are walked, so that
+ * <code>target</code>, <code>.git</code> and other large trees outside the
+ * includes are never visited. Below those roots, a directory is not entered if
+ * no include pattern could match anything in it, or if an exclude pattern
+ * matches everything in it.
+ * </p>
+ * <p>Each level of the directory tree can be listed in parallel, which helps
+ * with large trees on slow or networked file systems.
+ * </p>
+ * <p>The modification time of each directory searched is recorded just before
+ * it is listed, so that a caller that is watching for new inputs can check
+ * these directories, rather than searching again, to see whether the result
+ * could have changed.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class FileDiscovery
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Segment that matches any number of directories */
+    protected static final String ANY_DEPTH = "**";
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File baseDir;
+    private String[] includes;
+    private String[] excludes;
+
+    /** Exclude patterns that match every file below a matching directory, without the trailing <code>**</code> */
+    private List<String> prunes = new ArrayList<String>();
+
+    /** The modification time of each directory searched by the last search, zero if it did not exist */
+    private Map<String, Long> searched = Collections.emptyMap();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a file discovery for the given patterns
+     * @param baseDir The directory that the patterns are relative to
+     * @param includes Patterns of the files to find
+     * @param excludes Patterns of the files not to find
+     */
+    public FileDiscovery( File baseDir, String[] includes, String[] excludes ) {
+        this.baseDir = baseDir;
+        this.includes = normalizePatterns( includes );
+        this.excludes = normalizePatterns( excludes );
+
+        String anyDepth = File.separator + ANY_DEPTH;
+        for (String e: this.excludes) {
+            String p = e;
+            while (p.endsWith( anyDepth )) {
+                p = p.substring( 0, p.length() - anyDepth.length() );
+            }
+            if (p.length() < e.length() && p.length() > 0) {
+                prunes.add( p );
+            }
+        }
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return the names of the matching files, relative to the base directory
+     * and using the platform file separator, in sorted order
+     * @param nThreads The number of threads to use to list directories
+     * @return The matching file names
+     */
+    public List<String> find( int nThreads ) {
+        ExecutorService executor = (nThreads > 1) ? Executors.newFixedThreadPool( nThreads ) : null;
+        try {
+            return find( executor );
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Return the names of the matching files, relative to the base directory
+     * and using the platform file separator, in sorted order. The executor is
+     * left running, so that it can be used again for the next search.
+     * @param executor The executor used to list directories, or null to list
+     * them on the current thread
+     * @return The matching file names
+     */
+    public List<String> find( ExecutorService executor ) {
+        Map<String, Long> dirs = new HashMap<String, Long>();
+        for (String c: getRootCandidates()) {
+            // a root that does not exist yet is noticed when it is created
+            dirs.put( c, 0L );
+        }
+
+        List<String> files = new ArrayList<String>();
+        List<String> frontier = getRoots();
+        while (!frontier.isEmpty()) {
+            List<Listing> listings = list( frontier, executor );
+            frontier = new ArrayList<String>();
+            for (Listing l: listings) {
+                dirs.put( l.dir, l.modified );
+                files.addAll( l.files );
+                frontier.addAll( l.dirs );
+            }
+        }
+
+        searched = dirs;
+        Collections.sort( files );
+        return files;
+    }
+
+    /**
+     * Return the directories searched by the last call to <code>find</code>,
+     * relative to the base directory, with the modification time of each
+     * just before it was listed. Directories named by the includes that did
+     * not exist have a modification time of zero. The result of the search can
+     * only have changed if one of these times has changed.
+     * @return Map from directory name to modification time
+     */
+    public Map<String, Long> getSearchedDirectories() {
+        return Collections.unmodifiableMap( searched );
+    }
+
+    /**
+     * Return the directories from which the files matching the includes can be
+     * reached: the literal leading directories of each include pattern, omitting
+     * any directory that is below another one. The base directory itself is the
+     * empty string.
+     * @return The root directories, relative to the base directory
+     */
+    public List<String> getRoots() {
+        List<String> roots = new ArrayList<String>();
+        for (String c: getRootCandidates()) {
+            if (!isBelowAny( c, roots ) && new File( baseDir, c ).isDirectory()) {
+                roots.add( c );
+            }
+        }
+        return roots;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return the literal leading directories of each include pattern, whether or not they exist */
+    protected SortedSet<String> getRootCandidates() {
+        SortedSet<String> candidates = new TreeSet<String>();
+        for (String include: includes) {
+            if (RemoteVocabularyCache.isRemote( include )) {
+                continue;
+            }
+            StringBuilder root = new StringBuilder();
+            String[] segments = include.split( (File.separatorChar == '\\') ? "\\\\" : File.separator );
+
+            // the last segment names files, not a directory
+            for (int i = 0;  i < segments.length - 1 && !isPattern( segments[i] );  i++) {
+                if (segments[i].length() > 0) {
+                    if (root.length() > 0) {
+                        root.append( File.separatorChar );
+                    }
+                    root.append( segments[i] );
+                }
+            }
+            candidates.add( root.toString() );
+        }
+        return candidates;
+    }
+
+    /** List each of the given directories, in parallel if there is an executor */
+    protected List<Listing> list( List<String> dirs, ExecutorService executor ) {
+        List<Listing> listings = new ArrayList<Listing>( dirs.size() );
+        if (executor == null || dirs.size() == 1) {
+            for (String dir: dirs) {
+                listings.add( list( dir ) );
+            }
+            return listings;
+        }
+
+        List<Callable<Listing>> tasks = new ArrayList<Callable<Listing>>( dirs.size() );
+        for (final String dir: dirs) {
+            tasks.add( new Callable<Listing>() {
+                public Listing call() {
+                    return list( dir );
+                }
+            } );
+        }
+        try {
+            for (Future<Listing> f: executor.invokeAll( tasks )) {
+                listings.add( f.get() );
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while finding input files", e );
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof RuntimeException) ? (RuntimeException) cause : new IllegalStateException( cause );
+        }
+        return listings;
+    }
+
+    /** List the matching files, and the directories that should be entered, in one directory */
+    protected Listing list( String dir ) {
+        Listing listing = new Listing();
+        listing.dir = dir;
+        File d = new File( baseDir, dir );
+        // read before listing, so that a file added meanwhile changes the time
+        listing.modified = d.lastModified();
+        File[] children = d.listFiles();
+        if (children == null) {
+            return listing;
+        }
+
+        for (File child: children) {
+            String name = (dir.length() == 0) ? child.getName() : dir + File.separator + child.getName();
+            if (child.isDirectory()) {
+                if (couldHoldIncluded( name ) && !isPruned( name )) {
+                    listing.dirs.add( name );
+                }
+            }
+            else if (isIncluded( name ) && !isExcluded( name )) {
+                listing.files.add( name );
+            }
+        }
+        return listing;
+    }
+
+    protected boolean isIncluded( String name ) {
+        for (String include: includes) {
+            if (SelectorUtils.matchPath( include, name, true )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean isExcluded( String name ) {
+        for (String exclude: excludes) {
+            if (SelectorUtils.matchPath( exclude, name, true )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return true if some include pattern could match a file below the directory */
+    protected boolean couldHoldIncluded( String dir ) {
+        for (String include: includes) {
+            if (SelectorUtils.matchPatternStart( include, dir, true )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return true if some exclude pattern matches every file below the directory */
+    protected boolean isPruned( String dir ) {
+        for (String prune: prunes) {
+            if (SelectorUtils.matchPath( prune, dir, true )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Normalize the patterns in the same way as the <code>DirectoryScanner</code>:
+     * use the platform separator, and treat a trailing separator as <code>**</code>
+     */
+    protected static String[] normalizePatterns( String[] patterns ) {
+        if (patterns == null) {
+            return new String[0];
+        }
+        String[] normalized = new String[patterns.length];
+        for (int i = 0;  i < patterns.length;  i++) {
+            String p = patterns[i].trim().replace( '/', File.separatorChar ).replace( '\\', File.separatorChar );
+            if (p.endsWith( File.separator )) {
+                p = p + ANY_DEPTH;
+            }
+            normalized[i] = p;
+        }
+        return normalized;
+    }
+
+    protected static boolean isPattern( String segment ) {
+        return segment.indexOf( '*' ) >= 0 || segment.indexOf( '?' ) >= 0;
+    }
+
+    /** Return true if the directory is the same as, or below, any of the roots */
+    protected static boolean isBelowAny( String dir, List<String> roots ) {
+        for (String root: roots) {
+            if (root.length() == 0 || dir.equals( root ) || dir.startsWith( root + File.separator )) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * The result of listing one directory
+     */
+    protected static class Listing
+    {
+        protected String dir;
+        protected long modified;
+        protected List<String> files = new ArrayList<String>();
+        protected List<String> dirs = new ArrayList<String>();
+    }
+}
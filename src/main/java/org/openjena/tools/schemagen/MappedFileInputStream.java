@@ -0,0 +1,191 @@
+/*****************************************************************************
+ * File:    MappedFileInputStream.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * <p>An input stream that reads a file through a memory mapping rather than
+ * by copying it through a buffer, so that the parser reads a large input
+ * straight from the operating system's page cache. The file is mapped a
+ * window at a time, so that very large files do not need a mapping as large
+ * as the file itself.
+ * </p>
+ * <p>A mapping cannot be released explicitly: it stays in place until its
+ * buffer is garbage collected, and on Windows the file stays locked until
+ * then. The stream drops its reference to each window as soon as it moves
+ * past it, reaches the end of the file or is closed, but callers that keep
+ * running after reading should still prefer a buffered stream.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class MappedFileInputStream
+    extends InputStream
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Default size of the window mapped at any one time */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private FileInputStream file;
+    private FileChannel channel;
+    private long size;
+    private int windowSize;
+
+    /** The position in the file of the start of the current window */
+    private long windowStart = 0;
+
+    /** The current window, or null when no window is mapped */
+    private MappedByteBuffer window;
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Open a stream on the given file, with the default window size
+     * @param f The file to read
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedFileInputStream( File f ) throws IOException {
+        this( f, DEFAULT_WINDOW_SIZE );
+    }
+
+    /**
+     * Open a stream on the given file
+     * @param f The file to read
+     * @param windowSize The number of bytes of the file to map at any one time
+     * @throws IOException If the file cannot be opened
+     */
+    public MappedFileInputStream( File f, int windowSize ) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException( "Window size must be positive: " + windowSize );
+        }
+        this.file = new FileInputStream( f );
+        this.channel = file.getChannel();
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return window.get() & 0xff;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min( len, window.remaining() );
+        window.get( b, off, n );
+        return n;
+    }
+
+    @Override
+    public long skip( long n ) throws IOException {
+        long pos = position();
+        long skipped = Math.max( 0, Math.min( n, size - pos ) );
+        if (skipped > 0) {
+            seek( pos + skipped );
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min( Integer.MAX_VALUE, size - position() );
+    }
+
+    @Override
+    public void close() throws IOException {
+        windowStart = position();
+        window = null;
+        channel.close();
+        file.close();
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return the position in the file of the next byte to be read */
+    protected long position() {
+        return (window == null) ? windowStart : windowStart + window.position();
+    }
+
+    /**
+     * Make sure there is at least one byte to read in the current window,
+     * mapping the next window if necessary
+     * @return False if the end of the file has been reached
+     */
+    protected boolean fill() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        long pos = position();
+        if (pos >= size) {
+            windowStart = pos;
+            window = null;
+            return false;
+        }
+        seek( pos );
+        return true;
+    }
+
+    /** Map the window starting at the given position */
+    protected void seek( long pos ) throws IOException {
+        if (!channel.isOpen()) {
+            throw new IOException( "Stream closed" );
+        }
+        window = null;
+        windowStart = pos;
+        window = channel.map( FileChannel.MapMode.READ_ONLY, pos, Math.min( windowSize, size - pos ) );
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
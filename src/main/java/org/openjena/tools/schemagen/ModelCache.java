@@ -0,0 +1,242 @@
+/*****************************************************************************
+ * File:    ModelCache.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.*;
+
+import com.hp.hpl.jena.rdf.model.Model;
+
+
+/**
+ * <p>A cache of parsed RDF models, keyed by the URI, syntax and content digest of
+ * the document they were parsed from. The {@linkplain #getShared(Object) shared}
+ * cache of a build session is used by all of the executions of the plugin in that
+ * session, so that a vocabulary that is an input to many modules, such as a common
+ * core ontology or a remote vocabulary, is parsed just once per build. Since the
+ * key includes the content digest, a document that changes during the build is
+ * parsed again.
+ * </p>
+ * <p>The shared caches are held only as long as their session: Maven may keep the
+ * plugin's classes loaded across many builds, as in an IDE, the Maven daemon or
+ * the <code>watch</code> goal, and the parsed models of one build must not stay in
+ * memory for the rest of the life of the JVM. Each session's cache is weakly
+ * keyed by the session, and released once Maven has finished with the session.
+ * </p>
+ * <p>The cache is bounded by the total number of triples in the cached models, and
+ * the least recently used models are evicted first. Cached models must not be
+ * changed: callers copy the statements they need into their own model.
+ * </p>
+ * <p>The limit of a shared cache applies to the whole build. Each execution
+ * {@linkplain #requestMaxTriples(long) requests} the limit it is configured with,
+ * and the cache keeps the largest limit requested in its session, so that
+ * executions running concurrently in different modules do not shrink the cache
+ * under each other. The next session starts with a new cache, whose limit
+ * follows that session's configuration.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ModelCache
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Default limit on the number of triples held by the cache */
+    public static final long DEFAULT_MAX_TRIPLES = 500000;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /** The cache of each build session in use, weakly keyed by the session */
+    private static final Map<Object, ModelCache> shared = new WeakHashMap<Object, ModelCache>();
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The cached models, least recently used first */
+    private LinkedHashMap<String, Model> models = new LinkedHashMap<String, Model>( 16, 0.75f, true );
+
+    /** The number of triples in each cached model, which is fixed once cached */
+    private Map<String, Long> sizes = new HashMap<String, Long>();
+
+    private long maxTriples;
+    private long triples = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a cache holding at most the given number of triples
+     * @param maxTriples The maximum number of triples, or zero to cache nothing
+     */
+    public ModelCache( long maxTriples ) {
+        this.maxTriples = maxTriples;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return the cache shared by all of the executions of the plugin in the
+     * given build session. A new cache holds nothing until a limit is requested.
+     * @param session The build session, which is only compared by identity, or
+     * null outside of a maven build
+     * @return The shared cache for the session
+     */
+    public static ModelCache getShared( Object session ) {
+        synchronized (shared) {
+            ModelCache cache = shared.get( session );
+            if (cache == null) {
+                cache = new ModelCache( 0 );
+                shared.put( session, cache );
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Return the key for a document
+     * @param uri The URI the document was read from, also used as its base URI
+     * @param syntax The syntax the document was read with, or null if it was
+     * determined from the URI
+     * @param digest A digest of the content of the document
+     * @return The cache key
+     */
+    public static String key( String uri, String syntax, String digest ) {
+        return uri + " " + syntax + " " + digest;
+    }
+
+    /**
+     * Return the cached model for the given key
+     * @param key The key of the document
+     * @return The model, which must not be changed, or null if it is not cached
+     */
+    public synchronized Model get( String key ) {
+        Model m = models.get( key );
+        if (m == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+        return m;
+    }
+
+    /**
+     * Add a model to the cache, evicting the least recently used models if the
+     * cache is full. A model larger than the whole cache is not cached. If two
+     * threads parse the same document at the same time, the second model
+     * replaces the first.
+     * @param key The key of the document
+     * @param model The model parsed from the document, which must not be changed
+     * once cached
+     */
+    public synchronized void put( String key, Model model ) {
+        remove( key );
+        long size = model.size();
+        if (size > maxTriples) {
+            return;
+        }
+        models.put( key, model );
+        sizes.put( key, size );
+        triples += size;
+        evict();
+    }
+
+    /**
+     * Change the limit on the number of triples held by the cache, evicting
+     * models if necessary
+     * @param maxTriples The maximum number of triples, or zero to cache nothing
+     */
+    public synchronized void setMaxTriples( long maxTriples ) {
+        this.maxTriples = maxTriples;
+        evict();
+    }
+
+    /**
+     * Raise the limit on the number of triples held by the cache to at least
+     * the given number. A smaller limit than the current one is ignored.
+     * @param maxTriples The maximum number of triples wanted by the caller
+     */
+    public synchronized void requestMaxTriples( long maxTriples ) {
+        this.maxTriples = Math.max( this.maxTriples, maxTriples );
+    }
+
+    /** Return the limit on the number of triples held by the cache */
+    public synchronized long getMaxTriples() {
+        return maxTriples;
+    }
+
+    /** Remove all of the models from the cache */
+    public synchronized void clear() {
+        models.clear();
+        sizes.clear();
+        triples = 0;
+    }
+
+    /** Return the number of cached models */
+    public synchronized int size() {
+        return models.size();
+    }
+
+    /** Return the total number of triples in the cached models */
+    public synchronized long getTriples() {
+        return triples;
+    }
+
+    /** Return the number of calls to {@link #get(String)} that found a model */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Return the number of calls to {@link #get(String)} that did not find a model */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected void remove( String key ) {
+        if (models.remove( key ) != null) {
+            triples -= sizes.remove( key );
+        }
+    }
+
+    /** Evict the least recently used models until the cache is within its limit */
+    protected void evict() {
+        Iterator<Map.Entry<String, Model>> i = models.entrySet().iterator();
+        while (triples > maxTriples && i.hasNext()) {
+            String key = i.next().getKey();
+            i.remove();
+            triples -= sizes.remove( key );
+        }
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
@@ -0,0 +1,406 @@
+/*****************************************************************************
+ * File:    ParsedModelStore.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.*;
+
+import com.hp.hpl.jena.datatypes.RDFDatatype;
+import com.hp.hpl.jena.datatypes.TypeMapper;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.AnonId;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+
+/**
+ * <p>An on-disk store of parsed inputs, in a compact binary form that is much
+ * faster to load than RDF/XML or Turtle is to parse. When an input needs to be
+ * translated again although its content is unchanged, for example because its
+ * options have changed, the parsed statements are loaded from the store rather
+ * than parsing the input again.
+ * </p>
+ * <p>Each input has one file, named by a digest of the name of the input,
+ * which holds the model parsed from the latest content of the input. The file
+ * records the key of the model, which identifies the URI, syntax and content of
+ * the input, so that when the content changes the stored model is no longer
+ * used, and is deleted and then replaced by the model parsed from the new
+ * content. The store therefore does not grow as inputs are edited. After the
+ * key, the file holds the namespace prefixes, then a dictionary of the distinct
+ * RDF terms, then the triples as variable-length integer indexes into the
+ * dictionary. A file that was written by a different version of the tools, or
+ * that cannot be read for any reason, is deleted, and the input is parsed again.
+ * Every count and length read from a file is checked against the size of the
+ * file before anything is allocated for it, so that a corrupt file cannot make
+ * the build run out of memory.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ParsedModelStore
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Default name of the store directory, in the project build directory */
+    public static final String STORE_DIR_NAME = "schemagen-parsed";
+
+    /** Marker at the start of a stored model */
+    protected static final int MAGIC = 0x53474d42;
+
+    /** Version of the stored model format */
+    protected static final int FORMAT_VERSION = 1;
+
+    /** Kinds of term in the dictionary */
+    protected static final int URI = 0;
+    protected static final int BLANK = 1;
+    protected static final int PLAIN_LITERAL = 2;
+    protected static final int LANG_LITERAL = 3;
+    protected static final int TYPED_LITERAL = 4;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The directory holding the stored models */
+    private File dir;
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a store in the given directory, which is created when the
+     * first model is saved
+     * @param dir The store directory
+     */
+    public ParsedModelStore( File dir ) {
+        this.dir = dir;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Load the model stored for the given input, if it was stored with the
+     * given key. A stored model with a different key, or that cannot be read,
+     * is deleted.
+     * @param name The name of the input, such as its URI
+     * @param key The key of the current content of the input, as given by {@link ModelCache#key}
+     * @return The model, or null if there is no usable stored model
+     */
+    public Model load( String name, String key ) {
+        File f = getFile( name );
+        if (!f.isFile()) {
+            return null;
+        }
+
+        Model m = ModelFactory.createDefaultModel();
+        boolean usable = false;
+        try {
+            long size = f.length();
+            DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( f ) ) );
+            try {
+                if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION &&
+                    BuildState.getToolVersion().equals( readString( in, size ) ) &&
+                    key.equals( readString( in, size ) )) {
+                    read( in, m, size );
+                    usable = true;
+                }
+            }
+            finally {
+                in.close();
+            }
+        }
+        catch (IOException e) {
+            // truncated or corrupt, so re-parse the input
+        }
+        catch (RuntimeException e) {
+            // a corrupt term that Jena will not accept
+        }
+
+        if (!usable) {
+            // stale or unreadable: it will be replaced when the input is parsed
+            f.delete();
+            return null;
+        }
+        return m;
+    }
+
+    /**
+     * Store the given model for the given input, replacing any model stored
+     * for the input
+     * @param name The name of the input, such as its URI
+     * @param key The key of the current content of the input, as given by {@link ModelCache#key}
+     * @param m The parsed input
+     * @throws IOException If the model cannot be written
+     */
+    public void save( String name, String key, Model m ) throws IOException {
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+
+        // write to a temporary file first, so that a concurrent load never sees
+        // a partly written model
+        File tmp = File.createTempFile( "model", ".tmp", dir );
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+        try {
+            out.writeInt( MAGIC );
+            out.writeInt( FORMAT_VERSION );
+            writeString( out, BuildState.getToolVersion() );
+            writeString( out, key );
+            write( out, m );
+        }
+        finally {
+            out.close();
+        }
+
+        File f = getFile( name );
+        if (!tmp.renameTo( f )) {
+            f.delete();
+            if (!tmp.renameTo( f )) {
+                tmp.delete();
+                throw new IOException( "Failed to rename " + tmp + " to " + f );
+            }
+        }
+    }
+
+    /**
+     * Return the file in which the model parsed from the given input is stored
+     * @param name The name of the input
+     * @return The store file
+     */
+    public File getFile( String name ) {
+        MessageDigest md = BuildState.newDigest();
+        BuildState.update( md, name );
+        return new File( dir, BuildState.toHex( md.digest() ) + ".bin" );
+    }
+
+    /**
+     * Write the prefixes and statements of the model to the stream
+     * @param out The output stream
+     * @param m The model to write
+     * @throws IOException If the model cannot be written
+     */
+    public static void write( DataOutputStream out, Model m ) throws IOException {
+        Map<String, String> prefixes = m.getNsPrefixMap();
+        writeVarInt( out, prefixes.size() );
+        for (Map.Entry<String, String> e: prefixes.entrySet()) {
+            writeString( out, e.getKey() );
+            writeString( out, e.getValue() );
+        }
+
+        // number the distinct terms in order of first use
+        Graph g = m.getGraph();
+        Map<Node, Integer> ids = new HashMap<Node, Integer>();
+        List<Node> terms = new ArrayList<Node>();
+        int[] triples = new int[g.size() * 3];
+        int n = 0;
+        ExtendedIterator<Triple> i = g.find( Node.ANY, Node.ANY, Node.ANY );
+        try {
+            while (i.hasNext()) {
+                Triple t = i.next();
+                if (n == triples.length) {
+                    // the graph may have grown since its size was taken
+                    int[] more = new int[triples.length * 2 + 3];
+                    System.arraycopy( triples, 0, more, 0, n );
+                    triples = more;
+                }
+                triples[n++] = id( t.getSubject(), ids, terms );
+                triples[n++] = id( t.getPredicate(), ids, terms );
+                triples[n++] = id( t.getObject(), ids, terms );
+            }
+        }
+        finally {
+            i.close();
+        }
+
+        writeVarInt( out, terms.size() );
+        for (Node term: terms) {
+            writeTerm( out, term );
+        }
+        writeVarInt( out, n / 3 );
+        for (int j = 0;  j < n;  j++) {
+            writeVarInt( out, triples[j] );
+        }
+    }
+
+    /**
+     * Read prefixes and statements written by {@link #write} into the model
+     * @param in The input stream
+     * @param m The model to add the statements to
+     * @param size The number of bytes that can be read from the stream, which
+     * bounds every count and length in the model
+     * @throws IOException If the model cannot be read
+     */
+    public static void read( DataInputStream in, Model m, long size ) throws IOException {
+        int nPrefixes = readLength( in, size );
+        for (int i = 0;  i < nPrefixes;  i++) {
+            String prefix = readString( in, size );
+            m.setNsPrefix( prefix, readString( in, size ) );
+        }
+
+        // each term takes at least a kind and a length byte
+        Node[] terms = new Node[readLength( in, size / 2 )];
+        for (int i = 0;  i < terms.length;  i++) {
+            terms[i] = readTerm( in, size );
+        }
+
+        Graph g = m.getGraph();
+        int nTriples = readLength( in, size );
+        for (int i = 0;  i < nTriples;  i++) {
+            Node s = term( terms, readVarInt( in ) );
+            Node p = term( terms, readVarInt( in ) );
+            Node o = term( terms, readVarInt( in ) );
+            g.add( Triple.create( s, p, o ) );
+        }
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return the index of the term, adding it to the dictionary if necessary */
+    protected static int id( Node term, Map<Node, Integer> ids, List<Node> terms ) {
+        Integer id = ids.get( term );
+        if (id == null) {
+            id = terms.size();
+            ids.put( term, id );
+            terms.add( term );
+        }
+        return id;
+    }
+
+    protected static Node term( Node[] terms, int id ) throws IOException {
+        if (id < 0 || id >= terms.length) {
+            throw new IOException( "Illegal term index " + id );
+        }
+        return terms[id];
+    }
+
+    protected static void writeTerm( DataOutputStream out, Node term ) throws IOException {
+        if (term.isURI()) {
+            out.writeByte( URI );
+            writeString( out, term.getURI() );
+        }
+        else if (term.isBlank()) {
+            out.writeByte( BLANK );
+            writeString( out, term.getBlankNodeLabel() );
+        }
+        else if (term.getLiteralDatatypeURI() != null) {
+            out.writeByte( TYPED_LITERAL );
+            writeString( out, term.getLiteralLexicalForm() );
+            writeString( out, term.getLiteralDatatypeURI() );
+        }
+        else if (term.getLiteralLanguage().length() > 0) {
+            out.writeByte( LANG_LITERAL );
+            writeString( out, term.getLiteralLexicalForm() );
+            writeString( out, term.getLiteralLanguage() );
+        }
+        else {
+            out.writeByte( PLAIN_LITERAL );
+            writeString( out, term.getLiteralLexicalForm() );
+        }
+    }
+
+    protected static Node readTerm( DataInputStream in, long size ) throws IOException {
+        int kind = in.readUnsignedByte();
+        switch (kind) {
+        case URI:
+            return Node.createURI( readString( in, size ) );
+        case BLANK:
+            return Node.createAnon( new AnonId( readString( in, size ) ) );
+        case PLAIN_LITERAL:
+            return Node.createLiteral( readString( in, size ) );
+        case LANG_LITERAL: {
+            String lex = readString( in, size );
+            return Node.createLiteral( lex, readString( in, size ), false );
+        }
+        case TYPED_LITERAL: {
+            String lex = readString( in, size );
+            RDFDatatype dt = TypeMapper.getInstance().getSafeTypeByName( readString( in, size ) );
+            return Node.createLiteral( lex, null, dt );
+        }
+        default:
+            throw new IOException( "Unknown term kind " + kind );
+        }
+    }
+
+    /** Write a string as its length in bytes followed by its UTF-8 encoding */
+    protected static void writeString( DataOutputStream out, String s ) throws IOException {
+        byte[] bytes = s.getBytes( "UTF-8" );
+        writeVarInt( out, bytes.length );
+        out.write( bytes );
+    }
+
+    protected static String readString( DataInputStream in, long size ) throws IOException {
+        byte[] bytes = new byte[readLength( in, size )];
+        in.readFully( bytes );
+        return new String( bytes, "UTF-8" );
+    }
+
+    /** Write a non-negative integer in seven bit groups, least significant first */
+    protected static void writeVarInt( DataOutputStream out, int v ) throws IOException {
+        while ((v & ~0x7f) != 0) {
+            out.writeByte( (v & 0x7f) | 0x80 );
+            v >>>= 7;
+        }
+        out.writeByte( v );
+    }
+
+    /**
+     * Read a count or length that cannot be more than the given maximum, since
+     * each of the items counted takes at least one byte of what is left to read
+     */
+    protected static int readLength( DataInputStream in, long max ) throws IOException {
+        int n = readVarInt( in );
+        if (n > max) {
+            throw new IOException( "Length " + n + " is larger than the stored model" );
+        }
+        return n;
+    }
+
+    protected static int readVarInt( DataInputStream in ) throws IOException {
+        int v = 0;
+        for (int shift = 0;  shift < 32;  shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (v < 0) {
+                    break;
+                }
+                return v;
+            }
+        }
+        throw new IOException( "Malformed variable length integer" );
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
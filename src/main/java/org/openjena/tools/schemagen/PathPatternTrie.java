@@ -0,0 +1,299 @@
+/*****************************************************************************
+ * File:    PathPatternTrie.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+
+/**
+ * <p>A set of Ant-style path patterns, such as <code>src/main/vocabs/internal/**&#47;*.ttl</code>,
+ * each associated with a value. The patterns are compiled into a trie over the
+ * path segments, so that a path is matched against all of the patterns in a
+ * single walk. A pattern ending in <code>/</code> matches everything below that
+ * directory, as with Ant.
+ * </p>
+ * <p>Where more than one pattern matches a path, the most specific pattern is the
+ * one with the most literal segments, then the fewest <code>**</code> segments,
+ * then the most literal characters. Patterns that are equally specific are
+ * ordered as they were added.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class PathPatternTrie<T>
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Segment that matches any number of directories */
+    public static final String ANY_DEPTH = "**";
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The root of the trie */
+    private Node<T> root = new Node<T>();
+
+    /** The values that have been added, in order */
+    private List<T> values = new ArrayList<T>();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return true if the given path contains Ant-style wildcards, or names
+     * a directory with a trailing <code>/</code>
+     * @param path A file path or pattern
+     * @return True if the path is a pattern
+     */
+    public static boolean isPattern( String path ) {
+        return path.indexOf( '*' ) >= 0 || path.indexOf( '?' ) >= 0 || path.endsWith( "/" );
+    }
+
+    /**
+     * Add a pattern to the trie
+     * @param pattern An Ant-style path pattern
+     * @param value The value to return when the pattern matches
+     */
+    public void add( String pattern, T value ) {
+        String p = normalize( pattern );
+        if (p.endsWith( "/" )) {
+            p = p + ANY_DEPTH;
+        }
+
+        Entry<T> entry = new Entry<T>( value, values.size() );
+        Node<T> node = root;
+        for (String segment: split( p )) {
+            node = node.child( segment );
+            if (segment.equals( ANY_DEPTH )) {
+                entry.anyDepthSegments++;
+            }
+            else if (isPattern( segment )) {
+                entry.literalChars += segment.replace( "*", "" ).replace( "?", "" ).length();
+            }
+            else {
+                entry.literalSegments++;
+                entry.literalChars += segment.length();
+            }
+        }
+        node.entries.add( entry );
+        values.add( value );
+    }
+
+    /**
+     * Return the value of the most specific pattern matching the given path
+     * @param path A file path, relative to the same directory as the patterns
+     * @return The matching value, or null
+     */
+    public T match( String path ) {
+        List<T> all = matchAll( path );
+        return all.isEmpty() ? null : all.get( 0 );
+    }
+
+    /**
+     * Return the values of all of the patterns matching the given path, most
+     * specific first
+     * @param path A file path, relative to the same directory as the patterns
+     * @return The matching values, possibly empty
+     */
+    public List<T> matchAll( String path ) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Entry<T>> matches = new TreeSet<Entry<T>>();
+        collect( root, split( normalize( path ) ), 0, matches );
+
+        List<T> result = new ArrayList<T>( matches.size() );
+        for (Entry<T> e: matches) {
+            result.add( e.value );
+        }
+        return result;
+    }
+
+    /**
+     * Return the values of all of the patterns, in the order they were added
+     * @return The values
+     */
+    public List<T> values() {
+        return Collections.unmodifiableList( values );
+    }
+
+    /** Return true if there are no patterns */
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Collect the entries of the patterns matching the path from the i'th segment on */
+    protected void collect( Node<T> node, String[] segments, int i, Set<Entry<T>> matches ) {
+        if (node.anyDepth != null) {
+            // ** matches zero or more segments
+            for (int j = i;  j <= segments.length;  j++) {
+                collect( node.anyDepth, segments, j, matches );
+            }
+        }
+
+        if (i == segments.length) {
+            matches.addAll( node.entries );
+            return;
+        }
+
+        Node<T> child = node.literals.get( segments[i] );
+        if (child != null) {
+            collect( child, segments, i + 1, matches );
+        }
+        for (int k = 0;  k < node.wildcards.size();  k++) {
+            if (node.wildcardPatterns.get( k ).matcher( segments[i] ).matches()) {
+                collect( node.wildcards.get( k ), segments, i + 1, matches );
+            }
+        }
+    }
+
+    protected static String normalize( String path ) {
+        String p = path.replace( '\\', '/' );
+        while (p.startsWith( "./" )) {
+            p = p.substring( 2 );
+        }
+        return p;
+    }
+
+    protected static String[] split( String path ) {
+        List<String> segments = new ArrayList<String>();
+        for (String s: path.split( "/" )) {
+            if (s.length() > 0) {
+                segments.add( s );
+            }
+        }
+        return segments.toArray( new String[segments.size()] );
+    }
+
+    /** Compile a path segment containing * or ? wildcards to a regex */
+    protected static Pattern compileSegment( String segment ) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c: segment.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append( Pattern.quote( literal.toString() ) );
+                    literal.setLength( 0 );
+                }
+                regex.append( (c == '*') ? ".*" : "." );
+            }
+            else {
+                literal.append( c );
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append( Pattern.quote( literal.toString() ) );
+        }
+        return Pattern.compile( regex.toString() );
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * A node in the trie, corresponding to a path segment
+     */
+    protected static class Node<T>
+    {
+        protected Map<String, Node<T>> literals = new HashMap<String, Node<T>>();
+        protected List<String> wildcardSegments = new ArrayList<String>();
+        protected List<Pattern> wildcardPatterns = new ArrayList<Pattern>();
+        protected List<Node<T>> wildcards = new ArrayList<Node<T>>();
+        protected Node<T> anyDepth;
+
+        /** The patterns that end at this node */
+        protected List<Entry<T>> entries = new ArrayList<Entry<T>>();
+
+        /** Return the child node for the given segment, creating it if necessary */
+        protected Node<T> child( String segment ) {
+            if (segment.equals( ANY_DEPTH )) {
+                if (anyDepth == null) {
+                    anyDepth = new Node<T>();
+                }
+                return anyDepth;
+            }
+            else if (isPattern( segment )) {
+                int k = wildcardSegments.indexOf( segment );
+                if (k < 0) {
+                    wildcardSegments.add( segment );
+                    wildcardPatterns.add( compileSegment( segment ) );
+                    wildcards.add( new Node<T>() );
+                    k = wildcards.size() - 1;
+                }
+                return wildcards.get( k );
+            }
+            else {
+                Node<T> n = literals.get( segment );
+                if (n == null) {
+                    n = new Node<T>();
+                    literals.put( segment, n );
+                }
+                return n;
+            }
+        }
+    }
+
+    /**
+     * A pattern's value and specificity. Entries sort most specific first.
+     */
+    protected static class Entry<T>
+        implements Comparable<Entry<T>>
+    {
+        protected T value;
+        protected int index;
+        protected int literalSegments;
+        protected int anyDepthSegments;
+        protected int literalChars;
+
+        protected Entry( T value, int index ) {
+            this.value = value;
+            this.index = index;
+        }
+
+        public int compareTo( Entry<T> o ) {
+            if (literalSegments != o.literalSegments) {
+                return o.literalSegments - literalSegments;
+            }
+            if (anyDepthSegments != o.anyDepthSegments) {
+                return anyDepthSegments - o.anyDepthSegments;
+            }
+            if (literalChars != o.literalChars) {
+                return o.literalChars - literalChars;
+            }
+            return index - o.index;
+        }
+    }
+}
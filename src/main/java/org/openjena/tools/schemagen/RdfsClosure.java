@@ -0,0 +1,388 @@
+/*****************************************************************************
+ * File:    RdfsClosure.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.*;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.ontology.Profile;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.vocabulary.*;
+
+
+/**
+ * <p>Computes just the entailments that change what schemagen generates when
+ * <code>use-inf</code> is set, as a lightweight alternative to attaching a
+ * general purpose Jena reasoner to the source model. Schemagen only asks
+ * which resources are classes, which are properties, and what the types of
+ * the other resources are, so the closure adds only <code>rdf:type</code>
+ * triples:</p>
+ * <ul>
+ * <li>the subjects and objects of <code>rdfs:subClassOf</code> and
+ * <code>owl:equivalentClass</code>, the objects of <code>rdfs:domain</code>,
+ * <code>rdfs:range</code> and <code>rdf:type</code>, are classes</li>
+ * <li>the subjects and objects of <code>rdfs:subPropertyOf</code> and
+ * <code>owl:equivalentProperty</code>, and the subjects of
+ * <code>rdfs:domain</code> and <code>rdfs:range</code>, are properties</li>
+ * <li>a sub-property of an object or datatype property is an object or
+ * datatype property, as are both sides of <code>owl:inverseOf</code> and
+ * transitive, symmetric and inverse functional properties</li>
+ * <li>a resource has every super-class of each of its types, and the domains
+ * and ranges of the properties, and their super-properties, it is used with</li>
+ * </ul>
+ * <p>The equivalence, inverse and property type terms are those of the
+ * ontology language, and are not used if the language, such as RDFS, does not
+ * have them. The plugin only uses the closure for RDFS inputs, where it gives
+ * the same types as Jena's RDFS reasoner; the OWL rule reasoner does not
+ * type every resource named in a sub-class or inverse axiom, for example.
+ * </p>
+ * <p>Terms are numbered as they are first seen, and the class and property
+ * hierarchies are held as integer adjacency sets, so the closure of each
+ * class and property is computed once, by a breadth first search. The
+ * instance triples are then read in a single pass: since the closure only
+ * adds <code>rdf:type</code> triples, which are not themselves the premise of
+ * any schema rule, no further passes are needed. Terms in the RDF, RDFS,
+ * OWL and XSD namespaces are never given new types.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class RdfsClosure
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final Node TYPE = RDF.type.asNode();
+    protected static final Node SUB_CLASS_OF = RDFS.subClassOf.asNode();
+    protected static final Node SUB_PROPERTY_OF = RDFS.subPropertyOf.asNode();
+    protected static final Node DOMAIN = RDFS.domain.asNode();
+    protected static final Node RANGE = RDFS.range.asNode();
+
+    /** Namespaces whose terms are never given new types */
+    protected static final String[] BUILTIN_NAMESPACES = {
+        RDF.getURI(), RDFS.getURI(), OWL.getURI(), XSD.getURI() };
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The type given to classes, e.g. <code>owl:Class</code> */
+    private Node classType;
+
+    /**
+     * The terms of the ontology language, each of which is null if the
+     * language does not have it
+     */
+    private Node objectPropertyType;
+    private Node datatypePropertyType;
+    private Node equivalentClass;
+    private Node equivalentProperty;
+    private Node inverseOf;
+
+    /** Types that make a property an object property */
+    private Set<Node> objectPropertyTypes = new HashSet<Node>();
+
+    /** The number of each term, and the term with each number */
+    private Map<Node, Integer> ids = new HashMap<Node, Integer>();
+    private List<Node> terms = new ArrayList<Node>();
+
+    /** The direct super-classes and super-properties of each term */
+    private Map<Integer, Set<Integer>> superClasses = new HashMap<Integer, Set<Integer>>();
+    private Map<Integer, Set<Integer>> superProperties = new HashMap<Integer, Set<Integer>>();
+
+    /** The declared domains and ranges of each property */
+    private Map<Integer, Set<Integer>> domains = new HashMap<Integer, Set<Integer>>();
+    private Map<Integer, Set<Integer>> ranges = new HashMap<Integer, Set<Integer>>();
+
+    /** Memoized closures */
+    private Map<Integer, Set<Integer>> classClosures = new HashMap<Integer, Set<Integer>>();
+    private Map<Integer, Set<Integer>> propertyClosures = new HashMap<Integer, Set<Integer>>();
+
+    /** The entailed types of each term */
+    private Map<Integer, Set<Integer>> entailed = new HashMap<Integer, Set<Integer>>();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a closure for an ontology language. Only the terms that the
+     * language has are used: for RDFS, the OWL property types, equivalences
+     * and inverses have no effect.
+     * @param profile The profile of the language
+     */
+    public RdfsClosure( Profile profile ) {
+        this.classType = profile.CLASS().asNode();
+        this.objectPropertyType = asNode( profile.OBJECT_PROPERTY() );
+        this.datatypePropertyType = asNode( profile.DATATYPE_PROPERTY() );
+        this.equivalentClass = asNode( profile.EQUIVALENT_CLASS() );
+        this.equivalentProperty = asNode( profile.EQUIVALENT_PROPERTY() );
+        this.inverseOf = asNode( profile.INVERSE_OF() );
+        if (objectPropertyType != null) {
+            for (Resource r: new Resource[] {profile.TRANSITIVE_PROPERTY(), profile.SYMMETRIC_PROPERTY(),
+                                             profile.INVERSE_FUNCTIONAL_PROPERTY()}) {
+                if (r != null) {
+                    objectPropertyTypes.add( r.asNode() );
+                }
+            }
+        }
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Add the entailed types of the terms of the graph to the graph
+     * @param g The graph
+     * @return The number of triples added
+     */
+    public int apply( Graph g ) {
+        readSchema( g );
+        readInstances( g );
+
+        int added = 0;
+        for (Map.Entry<Integer, Set<Integer>> e: entailed.entrySet()) {
+            Node s = term( e.getKey() );
+            if (isBuiltin( s )) {
+                continue;
+            }
+            for (Integer type: e.getValue()) {
+                Triple t = Triple.create( s, TYPE, term( type ) );
+                if (!g.contains( t )) {
+                    g.add( t );
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Read the class and property hierarchies, and the domains and ranges */
+    protected void readSchema( Graph g ) {
+        Node property = RDF.Property.asNode();
+        ExtendedIterator<Triple> i = g.find( Node.ANY, Node.ANY, Node.ANY );
+        try {
+            while (i.hasNext()) {
+                Triple t = i.next();
+                Node p = t.getPredicate();
+                Node s = t.getSubject();
+                Node o = t.getObject();
+                if (o.isLiteral()) {
+                    continue;
+                }
+
+                if (p.equals( SUB_CLASS_OF ) || p.equals( equivalentClass )) {
+                    link( superClasses, s, o );
+                    if (p.equals( equivalentClass )) {
+                        link( superClasses, o, s );
+                    }
+                    entail( s, classType );
+                    entail( o, classType );
+                }
+                else if (p.equals( SUB_PROPERTY_OF ) || p.equals( equivalentProperty )) {
+                    link( superProperties, s, o );
+                    if (p.equals( equivalentProperty )) {
+                        link( superProperties, o, s );
+                    }
+                    entail( s, property );
+                    entail( o, property );
+                }
+                else if (p.equals( DOMAIN ) || p.equals( RANGE )) {
+                    link( p.equals( DOMAIN ) ? domains : ranges, s, o );
+                    entail( s, property );
+                    entail( o, classType );
+                }
+                else if (p.equals( inverseOf ) && objectPropertyType != null) {
+                    entail( s, objectPropertyType );
+                    entail( o, objectPropertyType );
+                }
+                else if (p.equals( TYPE ) && objectPropertyTypes.contains( o )) {
+                    entail( s, objectPropertyType );
+                }
+            }
+        }
+        finally {
+            i.close();
+        }
+    }
+
+    /** Give each resource the super-classes of its types, and the domains and ranges of its properties */
+    protected void readInstances( Graph g ) {
+        // a sub-property has the kind of its super-properties
+        for (Integer p: new ArrayList<Integer>( superProperties.keySet() )) {
+            for (Integer q: propertyClosure( p )) {
+                inheritKind( g, p, q, objectPropertyType );
+                inheritKind( g, p, q, datatypePropertyType );
+            }
+        }
+
+        // the types entailed so far also have super-classes
+        for (Map.Entry<Integer, Set<Integer>> e: new ArrayList<Map.Entry<Integer, Set<Integer>>>( entailed.entrySet() )) {
+            for (Integer type: new ArrayList<Integer>( e.getValue() )) {
+                addTypes( e.getKey(), classClosure( type ) );
+            }
+        }
+
+        ExtendedIterator<Triple> i = g.find( Node.ANY, Node.ANY, Node.ANY );
+        try {
+            while (i.hasNext()) {
+                Triple t = i.next();
+                Node p = t.getPredicate();
+                Node o = t.getObject();
+                if (p.equals( TYPE )) {
+                    if (!o.isLiteral()) {
+                        entail( o, classType );
+                        addTypes( id( t.getSubject() ), classClosure( id( o ) ) );
+                    }
+                    continue;
+                }
+
+                Integer pid = ids.get( p );
+                if (pid == null) {
+                    // the property has no schema, so there is nothing to entail
+                    continue;
+                }
+                for (Integer q: propertyClosure( pid )) {
+                    for (Integer d: get( domains, q )) {
+                        addTypes( id( t.getSubject() ), classClosure( d ) );
+                    }
+                    if (!o.isLiteral()) {
+                        for (Integer r: get( ranges, q )) {
+                            addTypes( id( o ), classClosure( r ) );
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            i.close();
+        }
+    }
+
+    /** Give property p the given kind if its super-property q has it */
+    protected void inheritKind( Graph g, Integer p, Integer q, Node kind ) {
+        if (kind != null && (g.contains( term( q ), TYPE, kind ) || get( entailed, q ).contains( id( kind ) ))) {
+            entail( term( p ), kind );
+        }
+    }
+
+    /** Return the class and all of its super-classes */
+    protected Set<Integer> classClosure( Integer c ) {
+        return closure( c, superClasses, classClosures );
+    }
+
+    /** Return the property and all of its super-properties */
+    protected Set<Integer> propertyClosure( Integer p ) {
+        return closure( p, superProperties, propertyClosures );
+    }
+
+    /** Return the node and every node reachable from it, computing it once */
+    protected Set<Integer> closure( Integer start, Map<Integer, Set<Integer>> edges, Map<Integer, Set<Integer>> memo ) {
+        Set<Integer> result = memo.get( start );
+        if (result == null) {
+            result = new HashSet<Integer>();
+            result.add( start );
+            LinkedList<Integer> queue = new LinkedList<Integer>();
+            queue.add( start );
+            while (!queue.isEmpty()) {
+                for (Integer next: get( edges, queue.removeFirst() )) {
+                    if (result.add( next )) {
+                        queue.add( next );
+                    }
+                }
+            }
+            memo.put( start, result );
+        }
+        return result;
+    }
+
+    protected void link( Map<Integer, Set<Integer>> edges, Node from, Node to ) {
+        Integer f = id( from );
+        Set<Integer> s = edges.get( f );
+        if (s == null) {
+            s = new HashSet<Integer>();
+            edges.put( f, s );
+        }
+        s.add( id( to ) );
+    }
+
+    protected void entail( Node n, Node type ) {
+        addTypes( id( n ), Collections.singleton( id( type ) ) );
+    }
+
+    protected void addTypes( Integer n, Set<Integer> types ) {
+        Set<Integer> s = entailed.get( n );
+        if (s == null) {
+            s = new HashSet<Integer>();
+            entailed.put( n, s );
+        }
+        s.addAll( types );
+    }
+
+    protected static Set<Integer> get( Map<Integer, Set<Integer>> edges, Integer n ) {
+        Set<Integer> s = edges.get( n );
+        return (s == null) ? Collections.<Integer>emptySet() : s;
+    }
+
+    /** Return the number of the term, numbering it if it is new */
+    protected Integer id( Node n ) {
+        Integer id = ids.get( n );
+        if (id == null) {
+            id = terms.size();
+            ids.put( n, id );
+            terms.add( n );
+        }
+        return id;
+    }
+
+    protected Node term( Integer id ) {
+        return terms.get( id );
+    }
+
+    protected static Node asNode( Resource r ) {
+        return (r == null) ? null : r.asNode();
+    }
+
+    protected static boolean isBuiltin( Node n ) {
+        if (n.isURI()) {
+            for (String ns: BUILTIN_NAMESPACES) {
+                if (n.getURI().startsWith( ns )) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
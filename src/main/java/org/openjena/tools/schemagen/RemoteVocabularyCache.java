@@ -0,0 +1,470 @@
+/*****************************************************************************
+ * File:    RemoteVocabularyCache.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.*;
+
+import com.hp.hpl.jena.util.FileUtils;
+
+
+/**
+ * <p>On-disk cache of vocabularies fetched from <code>http:</code> and
+ * <code>https:</code> URLs. Each cached document is stored under a name derived
+ * from its URL, together with the <code>ETag</code>, <code>Last-Modified</code>
+ * and <code>Content-Type</code> headers it was served with. When online, the
+ * cached copy is revalidated with a conditional request, so an unchanged
+ * document is not downloaded again. When offline, the cached copy is used
+ * as-is.
+ * </p>
+ * <p>The cache may be shared by concurrent translations, and by concurrent
+ * builds, since documents are written to a temporary file that is then renamed
+ * into place. The headers are written after the document, together with a
+ * digest of the document they belong to, so that a document whose headers
+ * were not written, or were written for other content, is fetched again in
+ * full rather than revalidated. A set of documents may be {@linkplain #prefetch prefetched} in
+ * the background, so that fetching them overlaps with other work; a later
+ * {@link #resolve} of a prefetched URL waits for the prefetch to finish.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class RemoteVocabularyCache
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** The media types we ask for, in order of preference */
+    public static final String ACCEPT = "text/turtle, application/rdf+xml;q=0.9, application/n-triples;q=0.8, text/n3;q=0.7, */*;q=0.1";
+
+    /** Default connection timeout, in milliseconds */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    /** Default read timeout, in milliseconds */
+    public static final int DEFAULT_READ_TIMEOUT = 60000;
+
+    /** Default limit on the total time to fetch one document, in milliseconds */
+    public static final int DEFAULT_FETCH_TIMEOUT = 300000;
+
+    protected static final String DATA_SUFFIX = ".data";
+    protected static final String META_SUFFIX = ".properties";
+
+    protected static final String META_URL = "url";
+    protected static final String META_ETAG = "etag";
+    protected static final String META_LAST_MODIFIED = "last-modified";
+    protected static final String META_CONTENT_TYPE = "content-type";
+    protected static final String META_DIGEST = "digest";
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The directory holding the cached documents */
+    private File cacheDir;
+
+    /** If true, never go to the network */
+    private boolean offline;
+
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+    private int fetchTimeout = DEFAULT_FETCH_TIMEOUT;
+
+    /** Executor running prefetches, if any */
+    private ExecutorService prefetchExecutor;
+
+    /** Prefetches that have been started, by URL */
+    private ConcurrentMap<String, Future<CachedDocument>> prefetches = new ConcurrentHashMap<String, Future<CachedDocument>>();
+
+    /** Locks to prevent the same URL being fetched by two threads at once */
+    private ConcurrentMap<String, Object> locks = new ConcurrentHashMap<String, Object>();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    public RemoteVocabularyCache( File cacheDir, boolean offline ) {
+        this.cacheDir = cacheDir;
+        this.offline = offline;
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return true if the given name is a URL that this cache can handle
+     * @param name An input name
+     * @return True for <code>http:</code> and <code>https:</code> URLs
+     */
+    public static boolean isRemote( String name ) {
+        return name.startsWith( "http:" ) || name.startsWith( "https:" );
+    }
+
+    /**
+     * Start fetching the given documents in the background, using at most the
+     * given number of threads. Documents that are already being prefetched are
+     * ignored.
+     *
+     * @param urls The URLs of the documents to fetch
+     * @param nThreads The maximum number of concurrent fetches
+     */
+    public synchronized void prefetch( Collection<String> urls, int nThreads ) {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = Executors.newFixedThreadPool( Math.max( 1, nThreads ), new ThreadFactory() {
+                public Thread newThread( Runnable r ) {
+                    Thread t = new Thread( r, "schemagen-prefetch" );
+                    t.setDaemon( true );
+                    return t;
+                }
+            } );
+        }
+
+        for (final String url: urls) {
+            if (!prefetches.containsKey( url )) {
+                prefetches.put( url, prefetchExecutor.submit( new Callable<CachedDocument>() {
+                    public CachedDocument call() throws IOException {
+                        return resolveNow( url );
+                    }
+                } ) );
+            }
+        }
+    }
+
+    /**
+     * Stop any prefetches that have not yet started, and release the threads
+     * used for prefetching
+     */
+    public synchronized void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+            prefetchExecutor = null;
+        }
+        prefetches.clear();
+    }
+
+    /**
+     * Return a local copy of the document at the given URL, fetching it or
+     * revalidating the cached copy as necessary. If the document is being
+     * prefetched, wait for the prefetch to complete.
+     *
+     * @param url The URL of the document
+     * @return The cached document
+     * @throws IOException If the document is not cached and cannot be fetched,
+     * or the fetch takes longer than the fetch timeout
+     */
+    public CachedDocument resolve( String url ) throws IOException {
+        Future<CachedDocument> f = prefetches.get( url );
+        if (f == null || f.isCancelled()) {
+            return resolveNow( url );
+        }
+
+        try {
+            return f.get( fetchTimeout, TimeUnit.MILLISECONDS );
+        }
+        catch (TimeoutException e) {
+            f.cancel( true );
+            throw new IOException( "Timed out after " + fetchTimeout + "ms fetching " + url );
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while fetching " + url );
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException( "Failed to fetch " + url + ": " + e.getCause() );
+        }
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public void setConnectTimeout( int connectTimeout ) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setReadTimeout( int readTimeout ) {
+        this.readTimeout = readTimeout;
+    }
+
+    public void setFetchTimeout( int fetchTimeout ) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /**
+     * Fetch or revalidate the document on the current thread
+     */
+    protected CachedDocument resolveNow( String url ) throws IOException {
+        String key = BuildState.toHex( digest( url ) );
+        Object lock = locks.putIfAbsent( key, new Object() );
+        lock = (lock == null) ? locks.get( key ) : lock;
+
+        synchronized (lock) {
+            File data = new File( cacheDir, key + DATA_SUFFIX );
+            File meta = new File( cacheDir, key + META_SUFFIX );
+            Properties props = readMeta( meta );
+            boolean cached = data.isFile() && url.equals( props.getProperty( META_URL ) )
+                             && isIntact( data, props );
+
+            if (offline) {
+                if (!cached) {
+                    throw new IOException( "Offline, and " + url + " has not been cached" );
+                }
+                return new CachedDocument( url, data, props.getProperty( META_CONTENT_TYPE ), false );
+            }
+
+            try {
+                return fetch( url, data, meta, cached ? props : new Properties() );
+            }
+            catch (IOException e) {
+                if (cached) {
+                    // fall back to the copy we already have
+                    return new CachedDocument( url, data, props.getProperty( META_CONTENT_TYPE ), false );
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Fetch the document, conditionally on the given cached metadata
+     */
+    protected CachedDocument fetch( String url, File data, File meta, Properties props )
+        throws IOException
+    {
+        HttpURLConnection conn = (HttpURLConnection) new URL( url ).openConnection();
+        conn.setConnectTimeout( connectTimeout );
+        conn.setReadTimeout( readTimeout );
+        conn.setInstanceFollowRedirects( true );
+        conn.setRequestProperty( "Accept", ACCEPT );
+        if (props.getProperty( META_ETAG ) != null) {
+            conn.setRequestProperty( "If-None-Match", props.getProperty( META_ETAG ) );
+        }
+        if (props.getProperty( META_LAST_MODIFIED ) != null) {
+            conn.setRequestProperty( "If-Modified-Since", props.getProperty( META_LAST_MODIFIED ) );
+        }
+
+        try {
+            int status = conn.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && data.isFile()) {
+                return new CachedDocument( url, data, props.getProperty( META_CONTENT_TYPE ), false );
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException( "HTTP " + status + " fetching " + url );
+            }
+
+            cacheDir.mkdirs();
+            File tmp = File.createTempFile( data.getName(), ".tmp", cacheDir );
+            String digest;
+            try {
+                copy( conn.getInputStream(), tmp );
+                digest = BuildState.digest( tmp );
+                replace( tmp, data );
+            }
+            finally {
+                tmp.delete();
+            }
+
+            // the headers are written last, and only match this content
+            Properties newProps = new Properties();
+            newProps.setProperty( META_URL, url );
+            newProps.setProperty( META_DIGEST, digest );
+            setIfPresent( newProps, META_ETAG, conn.getHeaderField( "ETag" ) );
+            setIfPresent( newProps, META_LAST_MODIFIED, conn.getHeaderField( "Last-Modified" ) );
+            setIfPresent( newProps, META_CONTENT_TYPE, conn.getContentType() );
+            writeMeta( meta, newProps );
+
+            return new CachedDocument( url, data, newProps.getProperty( META_CONTENT_TYPE ), true );
+        }
+        finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * Return true if the cached document is the one the cached headers were
+     * written for
+     */
+    protected boolean isIntact( File data, Properties props ) throws IOException {
+        return BuildState.digest( data ).equals( props.getProperty( META_DIGEST ) );
+    }
+
+    protected Properties readMeta( File meta ) throws IOException {
+        Properties props = new Properties();
+        if (meta.isFile()) {
+            InputStream in = new FileInputStream( meta );
+            try {
+                props.load( in );
+            }
+            finally {
+                in.close();
+            }
+        }
+        return props;
+    }
+
+    protected void writeMeta( File meta, Properties props ) throws IOException {
+        File tmp = File.createTempFile( meta.getName(), ".tmp", cacheDir );
+        try {
+            OutputStream out = new FileOutputStream( tmp );
+            try {
+                props.store( out, "schemagen remote vocabulary cache" );
+            }
+            finally {
+                out.close();
+            }
+            replace( tmp, meta );
+        }
+        finally {
+            tmp.delete();
+        }
+    }
+
+    protected static void copy( InputStream in, File file ) throws IOException {
+        try {
+            OutputStream out = new FileOutputStream( file );
+            try {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read( buf )) > 0) {
+                    out.write( buf, 0, n );
+                }
+            }
+            finally {
+                out.close();
+            }
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /** Move the source file over the target, replacing the target if it exists */
+    protected static void replace( File source, File target ) throws IOException {
+        if (!source.renameTo( target )) {
+            // some platforms will not rename over an existing file
+            target.delete();
+            if (!source.renameTo( target )) {
+                throw new IOException( "Failed to move " + source + " to " + target );
+            }
+        }
+    }
+
+    protected static void setIfPresent( Properties props, String key, String value ) {
+        if (value != null) {
+            props.setProperty( key, value );
+        }
+    }
+
+    protected static byte[] digest( String s ) {
+        MessageDigest md = BuildState.newDigest();
+        try {
+            return md.digest( s.getBytes( "UTF-8" ) );
+        }
+        catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * A local copy of a remote document
+     */
+    public static class CachedDocument
+    {
+        private String url;
+        private File file;
+        private String contentType;
+        private boolean fetched;
+
+        public CachedDocument( String url, File file, String contentType, boolean fetched ) {
+            this.url = url;
+            this.file = file;
+            this.contentType = contentType;
+            this.fetched = fetched;
+        }
+
+        /** Return the URL the document was fetched from */
+        public String getUrl() {
+            return url;
+        }
+
+        /** Return the local copy of the document */
+        public File getFile() {
+            return file;
+        }
+
+        /** Return the content type the document was served with, or null */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /** Return true if the document was downloaded, rather than served from the cache */
+        public boolean isFetched() {
+            return fetched;
+        }
+
+        /**
+         * Return the Jena name of the RDF syntax of the document, from its
+         * content type if recognised, otherwise from the extension of its URL
+         * @return The syntax name, e.g. <code>TURTLE</code>, or null if neither
+         * is recognised
+         */
+        public String getSyntax() {
+            String ct = (contentType == null) ? "" : contentType.toLowerCase();
+            int semi = ct.indexOf( ';' );
+            ct = (semi < 0) ? ct.trim() : ct.substring( 0, semi ).trim();
+
+            if (ct.equals( "text/turtle" ) || ct.equals( "application/x-turtle" )) {
+                return FileUtils.langTurtle;
+            }
+            else if (ct.equals( "application/rdf+xml" )) {
+                return FileUtils.langXML;
+            }
+            else if (ct.equals( "application/n-triples" )) {
+                return FileUtils.langNTriple;
+            }
+            else if (ct.equals( "text/n3" ) || ct.equals( "text/rdf+n3" )) {
+                return FileUtils.langN3;
+            }
+            return SyntaxResolver.fromExtension( url );
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*****************************************************************************
+ * File:    ResolvedOptions.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.*;
+
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+
+
+/**
+ * <p>An immutable snapshot of the effective values of a {@link SchemagenOptions}
+ * object and all of its parents. Schemagen queries its options many times for
+ * each term it generates, and each query on a {@link SchemagenOptions} walks up
+ * the chain of parent options, looking in the configuration model at each level.
+ * Resolving the options once for each input, before schemagen is run, reduces
+ * each of those queries to a single map lookup.
+ * </p>
+ * <p>The resolved values are exactly those the options chain would give at the
+ * time the snapshot was taken. Later changes to the options in the chain are
+ * not reflected in the snapshot.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ResolvedOptions
+    extends AbstractSchemagenOptions
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The resolved value of every option */
+    private final Map<OPT, ResolvedValue> values = new EnumMap<OPT, ResolvedValue>( OPT.class );
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a snapshot of the effective options given by the options
+     * object and its parents
+     * @param options The options to resolve
+     */
+    public ResolvedOptions( SchemagenOptions options ) {
+        for (OPT option: OPT.values()) {
+            values.put( option, new ResolvedValue( options, option ) );
+        }
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    @Override
+    protected boolean isTrue( OPT option ) {
+        return values.get( option ).isTrue();
+    }
+
+    @Override
+    protected boolean hasValue( OPT option ) {
+        return values.get( option ).getValue() != null;
+    }
+
+    @Override
+    protected RDFNode getValue( OPT option ) {
+        return values.get( option ).getValue();
+    }
+
+    @Override
+    protected String getStringValue( OPT option ) {
+        return values.get( option ).getStringValue();
+    }
+
+    @Override
+    protected boolean hasResourceValue( OPT option ) {
+        return getResource( option ) != null;
+    }
+
+    /**
+     * Return the value of the option as a resource. As for the unresolved
+     * options, it is an error to ask for a literal value as a resource.
+     */
+    @Override
+    protected Resource getResource( OPT option ) {
+        RDFNode v = values.get( option ).getValue();
+        return (v == null) ? null : v.asResource();
+    }
+
+    @Override
+    protected List<String> getAllValues( OPT option ) {
+        return values.get( option ).getAllValues();
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * The resolved value of one option, given by an options object and its
+     * parents. Also used to memoize the values of frozen options objects.
+     */
+    protected static class ResolvedValue
+    {
+        private final RDFNode value;
+        private final String stringValue;
+        private final List<String> allValues;
+        private final boolean truth;
+
+        /** Set if the option could not be evaluated as a boolean */
+        private final RuntimeException truthFailure;
+
+        protected ResolvedValue( SchemagenOptions options, OPT option ) {
+            value = options.computeValue( option );
+            stringValue = options.computeStringValue( option );
+            allValues = Collections.unmodifiableList( new ArrayList<String>( options.computeAllValues( option ) ) );
+
+            // options that are not booleans only fail if they are asked for as one
+            boolean t = false;
+            RuntimeException failure = null;
+            try {
+                t = options.computeIsTrue( option );
+            }
+            catch (RuntimeException e) {
+                failure = e;
+            }
+            truth = t;
+            truthFailure = failure;
+        }
+
+        protected RDFNode getValue() {
+            return value;
+        }
+
+        protected String getStringValue() {
+            return stringValue;
+        }
+
+        protected List<String> getAllValues() {
+            return allValues;
+        }
+
+        protected boolean isTrue() {
+            if (truthFailure != null) {
+                throw truthFailure;
+            }
+            return truth;
+        }
+    }
+}
@@ -16,13 +16,11 @@ package org.openjena.tools.schemagen;
 // Imports
 ///////////////
 
-import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.*;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
 
 import jena.schemagen;
 import jena.schemagen.SchemagenOptions.OPT;
@@ -30,10 +28,16 @@ import jena.schemagen.SchemagenOptions.OPT;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.codehaus.plexus.util.DirectoryScanner;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+import org.sonatype.plexus.build.incremental.ThreadBuildContext;
 
-import com.hp.hpl.jena.rdf.model.Resource;
-import com.hp.hpl.jena.rdf.model.ResourceFactory;
+import com.hp.hpl.jena.ontology.OntModelSpec;
+import com.hp.hpl.jena.rdf.model.*;
+import com.hp.hpl.jena.shared.JenaException;
+import com.hp.hpl.jena.util.FileManager;
 
 
 /**
@@ -46,6 +50,7 @@ import com.hp.hpl.jena.rdf.model.ResourceFactory;
  * Maven Mojo options
  * @goal translate
  * @phase generate-sources
+ * @threadSafe
 */
 public class SchemagenMojo
     extends AbstractMojo
@@ -62,24 +67,25 @@ public class SchemagenMojo
     /** Name of default options element */
     public static final String DEFAULT_OPTIONS_ELEM = "default";
 
+    /** Stands in for the generation date in generated source until it is written out */
+    protected static final String DATE_PLACEHOLDER = "@@schemagen-date@@";
+
+    /** Default size, in bytes, from which local inputs are memory mapped */
+    public static final long DEFAULT_MAP_INPUT_THRESHOLD = 16 * 1024 * 1024;
+
     /***********************************/
     /* Static variables                */
     /***********************************/
 
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
     /**
      * Target directory
      * @parameter property="project.build.directory"
      */
-    private static String projectBuildDir;
-
-    /** Return the value of <code>${project.build.directory}</code> */
-    public static String getProjectBuildDir() {
-        return projectBuildDir;
-    }
-
-    /***********************************/
-    /* Instance variables              */
-    /***********************************/
+    private String projectBuildDir;
 
     /**
      * Array of file patterns to include in processing
@@ -105,12 +111,177 @@ public class SchemagenMojo
      */
     private File baseDir;
 
-    /** The default options object, if any */
+    /**
+     * If true, translate every input even if its output is up to date
+     * @parameter property="schemagen.force" default-value="false"
+     */
+    private boolean force;
+
+    /**
+     * The number of inputs to translate concurrently, and of directories to
+     * list concurrently when finding the inputs. May be given as a plain
+     * number, or as a multiple of the number of available processors in the
+     * maven style, e.g. <code>1C</code> or <code>0.5C</code>
+     * @parameter property="schemagen.threads" default-value="1"
+     */
+    private String threads = "1";
+
+    /**
+     * If true, when translating in parallel, the first failed translation
+     * cancels the translations that have not yet started
+     * @parameter property="schemagen.failFast" default-value="false"
+     */
+    private boolean failFast;
+
+    /**
+     * Directory in which vocabularies fetched from http: and https: URLs are cached
+     * @parameter property="schemagen.cacheDirectory" default-value="${user.home}/.m2/schemagen-cache"
+     */
+    private File cacheDirectory;
+
+    /**
+     * If true, remote vocabularies are only taken from the cache. This follows
+     * maven's own offline mode.
+     * @parameter default-value="${settings.offline}"
+     * @readonly
+     */
+    private boolean offline;
+
+    /**
+     * The maximum number of remote vocabularies to fetch concurrently, before
+     * and during translation
+     * @parameter property="schemagen.prefetchThreads" default-value="4"
+     */
+    private int prefetchThreads = 4;
+
+    /**
+     * Timeout, in milliseconds, for connecting to the host of a remote vocabulary
+     * @parameter property="schemagen.connectTimeout" default-value="10000"
+     */
+    private int connectTimeout = RemoteVocabularyCache.DEFAULT_CONNECT_TIMEOUT;
+
+    /**
+     * Timeout, in milliseconds, for reading a remote vocabulary
+     * @parameter property="schemagen.readTimeout" default-value="60000"
+     */
+    private int readTimeout = RemoteVocabularyCache.DEFAULT_READ_TIMEOUT;
+
+    /**
+     * The maximum number of triples held in the cache of parsed inputs, which is
+     * shared by all of the executions of the plugin in a build and released when
+     * the build ends. The limit applies to the whole build: where executions set
+     * different limits, the largest is used. Zero disables the cache for this
+     * execution only.
+     * @parameter property="schemagen.modelCacheTriples" default-value="500000"
+     */
+    private long modelCacheTriples = ModelCache.DEFAULT_MAX_TRIPLES;
+
+    /**
+     * Directory in which parsed inputs are stored in a binary form, so that an
+     * unchanged input that has to be translated again is not parsed again.
+     * Defaults to <code>schemagen-parsed</code> in the project build directory.
+     * @parameter property="schemagen.parsedInputDirectory"
+     */
+    private File parsedInputDirectory;
+
+    /**
+     * If false, parsed inputs are not stored on disk
+     * @parameter property="schemagen.storeParsedInputs" default-value="true"
+     */
+    private boolean storeParsedInputs = true;
+
+    /**
+     * If true, only the triples that schemagen uses to generate terms are kept
+     * as each input is parsed, which greatly reduces the memory needed for
+     * large inputs. Inputs that set <code>include-source</code> or
+     * <code>use-inf</code> are always read in full.
+     * @parameter property="schemagen.extractTerms" default-value="false"
+     */
+    private boolean extractTerms = false;
+
+    /**
+     * If true, RDFS inputs that set <code>use-inf</code> are given just the
+     * entailed types of their classes, properties and individuals, computed
+     * by a lightweight closure, rather than having Jena's RDFS reasoner
+     * attached. The generated source is the same. OWL and DAML inputs always
+     * use Jena's reasoner.
+     * @parameter property="schemagen.fastInference" default-value="false"
+     */
+    private boolean fastInference = false;
+
+    /**
+     * Local inputs of at least this many bytes are read through a memory
+     * mapping of the file, rather than through a buffered stream. A negative
+     * value turns this off. Mapping is only used in one-shot command line
+     * builds: the mapping is not released until it is garbage collected, and
+     * until then it keeps the file locked on some platforms, which would stop
+     * a long-running IDE or watch build from letting the input be edited.
+     * @parameter property="schemagen.mapInputThreshold" default-value="16777216"
+     */
+    private long mapInputThreshold = DEFAULT_MAP_INPUT_THRESHOLD;
+
+    /**
+     * The id of this execution of the plugin, which names the file that holds
+     * its build state, so that executions in the same module do not remove
+     * each other's outputs
+     * @parameter default-value="${mojoExecution.executionId}"
+     * @readonly
+     */
+    private String executionId;
+
+    /**
+     * The project being built, to which the output directories are added as
+     * compile source roots
+     * @parameter default-value="${project}"
+     * @readonly
+     */
+    private MavenProject project;
+
+    /**
+     * The current build session, which scopes the cache of parsed inputs. Only
+     * its identity is used, so it is not held by its maven type.
+     * @parameter default-value="${session}"
+     * @readonly
+     */
+    private Object session;
+
+    /**
+     * The build context, which in an IDE build reports the inputs that have
+     * changed and receives the outputs and error markers
+     * @component
+     */
+    private BuildContext buildContext;
+
+    /** The build context for this execution, usable from any thread */
+    private BuildContext context;
+
+    /** The cache used in place of the shared cache when caching is disabled, which holds nothing */
+    private ModelCache uncached = new ModelCache( 0 );
+
+    /** The execution-level default options, below the plugin-level defaults */
     private SchemagenOptions defaultOptions;
 
     /** Map of source options, indexed by name */
     private Map<String, SchemagenOptions> optIndex = new HashMap<String, SchemagenOptions>();
 
+    /** Source options whose input is a pattern, applying to all matching files */
+    private PathPatternTrie<Source> scopedOptions = new PathPatternTrie<Source>();
+
+    /** The options hierarchy for each distinct list of matching patterns, most specific first */
+    private Map<List<Source>, SchemagenOptions> scopeChains = new HashMap<List<Source>, SchemagenOptions>();
+
+    /** The state of the inputs when they were last translated */
+    private BuildState buildState;
+
+    /** The cache of remote vocabularies */
+    private RemoteVocabularyCache remoteCache;
+
+    /** The on-disk store of parsed inputs, if enabled */
+    private ParsedModelStore parsedInputStore;
+
+    /** The log for the translation task running on the current thread, if any */
+    private ThreadLocal<Log> taskLog = new ThreadLocal<Log>();
+
     /***********************************/
     /* Constructors                    */
     /***********************************/
@@ -120,11 +291,35 @@ public class SchemagenMojo
     /***********************************/
 
     public void execute() throws MojoExecutionException, MojoFailureException {
-        // set the default defaults
-        defaultOptions = new SchemagenOptions.DefaultSchemagenOptions();
+        List<String> fileNames = prepare();
+
+        // then the files themselves, skipping those that are up to date
+        try {
+            build( fileNames, selectChanged( fileNames ) );
+        }
+        finally {
+            finish();
+        }
+    }
+
+    /**
+     * Prepare to translate the inputs: check and index the options, and load
+     * the state of the previous build
+     *
+     * @return The names of the input files
+     * @exception MojoFailureException If the options are in error
+     */
+    protected List<String> prepare()
+        throws MojoFailureException
+    {
+        resetOptions();
 
         getLog().info( "Starting schemagen execute() ...");
 
+        // check all of the options before translating anything
+        List<String> fileNames = matchFileNames();
+        validateOptions( fileNames );
+
         // next process the various options specs
         if( fileOptions != null ){
 	        for (Source p: fileOptions) {
@@ -136,17 +331,217 @@ public class SchemagenMojo
 	            }
 	        }
     	}
-    
-        if( defaultOptions == null ){
-        	handleDefaultOptions( new Source() );        	
+        linkScopedOptions();
+
+        addCompileSourceRoots();
+
+        context = resolveBuildContext();
+        remoteCache = newRemoteCache();
+        getModelCache().requestMaxTriples( modelCacheTriples );
+        parsedInputStore = storeParsedInputs ? new ParsedModelStore( getParsedInputDirectory() ) : null;
+        loadBuildState();
+        return fileNames;
+    }
+
+    /**
+     * Translate the given inputs, and remove the outputs of inputs that no
+     * longer exist
+     *
+     * @param fileNames The names of all of the input files
+     * @param changed The names of the input files to translate, if not up to date
+     * @exception MojoExecutionException If any input could not be translated
+     */
+    protected void build( List<String> fileNames, List<String> changed )
+        throws MojoExecutionException
+    {
+        prefetchRemote( changed );
+        translate( changed );
+        removeObsoleteOutputs( fileNames );
+    }
+
+    /**
+     * Release the resources used to translate the inputs, and save the state
+     * of the build
+     */
+    protected void finish() {
+        remoteCache.shutdown();
+        saveBuildState();
+
+        ModelCache cache = getModelCache();
+        getLog().info( "Parsed input cache: " + cache.getHits() + " hits, " + cache.getMisses() + " misses, "
+                       + cache.size() + " models" );
+    }
+
+    /**
+     * Return the cache of parsed inputs, shared by all of the executions in the
+     * build session, or an empty cache if this execution does not use the shared
+     * cache
+     * @return The model cache
+     */
+    protected ModelCache getModelCache() {
+        return (modelCacheTriples > 0) ? ModelCache.getShared( session ) : uncached;
+    }
+
+    /**
+     * Return the directory in which parsed inputs are stored
+     * @return The parsed input directory
+     */
+    protected File getParsedInputDirectory() {
+        return (parsedInputDirectory == null) ? new File( getProjectBuildDir(), ParsedModelStore.STORE_DIR_NAME ) : parsedInputDirectory;
+    }
+
+    /**
+     * Load a parsed input from the on-disk store
+     * @param name The name of the input in the store
+     * @param key The key of the current content of the input
+     * @return The parsed input, or null if it is not stored for this content
+     */
+    protected Model loadParsedInput( String name, String key ) {
+        return (parsedInputStore == null) ? null : parsedInputStore.load( name, key );
+    }
+
+    /**
+     * Save a parsed input to the on-disk store, replacing the input's previous
+     * entry. Failing to store the input is not an error, it just means that
+     * the input will be parsed again next time.
+     * @param name The name of the input in the store
+     * @param key The key of the current content of the input
+     * @param m The parsed input
+     */
+    protected void storeParsedInput( String name, String key, Model m ) {
+        if (parsedInputStore == null) {
+            return;
         }
-        
-        // then the files themselves
-        for (String fileName: matchFileNames()) {
-            processFile( fileName );
+        try {
+            parsedInputStore.save( name, key, m );
+        }
+        catch (IOException e) {
+            getLog().warn( "Failed to store parsed input: " + e.getMessage() );
+        }
+    }
+
+    public void setParsedInputDirectory( File parsedInputDirectory ) {
+        this.parsedInputDirectory = parsedInputDirectory;
+    }
+
+    public void setStoreParsedInputs( boolean storeParsedInputs ) {
+        this.storeParsedInputs = storeParsedInputs;
+    }
+
+    public void setMapInputThreshold( long mapInputThreshold ) {
+        this.mapInputThreshold = mapInputThreshold;
+    }
+
+    /**
+     * Return true if the given local input should be read through a memory
+     * mapping, i.e. it is large enough and this is a one-shot build
+     * @param f A local input file
+     * @return True if the file should be memory mapped
+     */
+    protected boolean isMapped( File f ) {
+        return mapInputThreshold >= 0 && isOneShotBuild() && f.length() >= mapInputThreshold;
+    }
+
+    /**
+     * Return true if this is a one-shot build, which ends the process soon
+     * after it finishes, rather than an incremental build in an IDE or a
+     * build that keeps running
+     * @return True for a non-incremental build with the default build context
+     */
+    protected boolean isOneShotBuild() {
+        BuildContext bc = getBuildContext();
+        return bc instanceof DefaultBuildContext && !bc.isIncremental();
+    }
+
+    public void setFastInference( boolean fastInference ) {
+        this.fastInference = fastInference;
+    }
+
+    public void setExtractTerms( boolean extractTerms ) {
+        this.extractTerms = extractTerms;
+    }
+
+    public void setModelCacheTriples( long modelCacheTriples ) {
+        this.modelCacheTriples = modelCacheTriples;
+    }
+
+    public void setSession( Object session ) {
+        this.session = session;
+    }
+
+    /**
+     * Check all of the configured source options, and fail with a report of
+     * every problem found if any of them are in error
+     *
+     * @param fileNames The names of the input files
+     * @exception MojoFailureException If any source options are in error
+     */
+    protected void validateOptions( List<String> fileNames )
+        throws MojoFailureException
+    {
+        List<String> problems = new SourceValidator( fileNames ).validate( fileOptions );
+        if (!problems.isEmpty()) {
+            String report = SourceValidator.report( problems );
+            getLog().error( report );
+            throw new MojoFailureException( report );
         }
     }
 
+    /**
+     * Return the log for this mojo. While an input is being translated on a
+     * worker thread, this is a buffer that is written to the mojo's log when the
+     * translation finishes, so that the messages for different inputs are not
+     * interleaved.
+     *
+     * @return The log to use on the current thread
+     */
+    @Override
+    public Log getLog() {
+        Log log = taskLog.get();
+        return (log == null) ? super.getLog() : log;
+    }
+
+    /**
+     * Add each of the distinct output directories given by the default and
+     * per-file options to the project's compile source roots, so that the
+     * generated Java is compiled without any further configuration
+     */
+    protected void addCompileSourceRoots() {
+        if (project == null) {
+            return;
+        }
+
+        for (String root: getOutputDirectories()) {
+            if (!project.getCompileSourceRoots().contains( root )) {
+                getLog().info( "Adding compile source root " + root );
+                project.addCompileSourceRoot( root );
+            }
+        }
+    }
+
+    /**
+     * Return the distinct output directories, as absolute paths, of the default
+     * options and the per-file options. Outputs that name a single Java file
+     * are not included.
+     *
+     * @return The output directories
+     */
+    protected Set<String> getOutputDirectories() {
+        List<SchemagenOptions> all = new ArrayList<SchemagenOptions>( optIndex.values() );
+        all.addAll( scopedOptions.values() );
+        all.add( getDefaultOptions() );
+
+        Set<String> roots = new LinkedHashSet<String>();
+        for (SchemagenOptions so: all) {
+            String output = (so == null) ? null : so.getOutputOption();
+            if (output != null && !output.endsWith( ".java" )) {
+                // relative outputs are resolved in the same way as by schemagen
+                roots.add( new File( output ).getAbsolutePath() );
+            }
+        }
+        return roots;
+    }
+
     /**
      * Return a list of the file names to be processed by schemagen. These are
      * determined by processing the Ant style paths given in the <code>includes</code>
@@ -155,14 +550,40 @@ public class SchemagenMojo
      * @return Non-null but possibly empty list of files to process, sorted into lexical order
      */
     protected List<String> matchFileNames() {
-        DirectoryScanner ds = new DirectoryScanner();
-        ds.setExcludes( excludes );
-        ds.setIncludes( includes );
-        ds.setBasedir( getBaseDir() );
-        ds.scan();
-
-		List<String> files = new ArrayList<String>( Arrays.asList( ds.getIncludedFiles() ) );
-        Collections.sort( files );
+        ExecutorService executor = newDiscoveryExecutor();
+        try {
+            return matchFileNames( executor );
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Return a list of the file names to be processed by schemagen, listing
+     * directories with the given executor
+     *
+     * @param executor The executor used to list directories, or null to list
+     * them on the current thread
+     * @return Non-null but possibly empty list of files to process, sorted into lexical order
+     */
+    protected List<String> matchFileNames( ExecutorService executor ) {
+        return matchFileNames( newFileDiscovery(), executor );
+    }
+
+    /**
+     * Return a list of the file names to be processed by schemagen, found by
+     * the given file discovery, followed by the remote includes
+     *
+     * @param discovery The file discovery for the includes and excludes
+     * @param executor The executor used to list directories, or null to list
+     * them on the current thread
+     * @return Non-null but possibly empty list of files to process
+     */
+    protected List<String> matchFileNames( FileDiscovery discovery, ExecutorService executor ) {
+        List<String> files = discovery.find( executor );
         
         //add http includes
         for( String include : includes ){
@@ -175,7 +596,46 @@ public class SchemagenMojo
 
 
     /**
-     * Return the default options structure, or null
+     * Return a new file discovery for the includes and excludes of this execution
+     */
+    protected FileDiscovery newFileDiscovery() {
+        return new FileDiscovery( getBaseDir(), includes, excludes );
+    }
+
+    /**
+     * Return a new executor for listing the directories that may hold inputs,
+     * or null if directories are listed on the current thread
+     */
+    protected ExecutorService newDiscoveryExecutor() {
+        int nThreads = getThreadCount();
+        return (nThreads > 1) ? Executors.newFixedThreadPool( nThreads ) : null;
+    }
+
+    /**
+     * Return the value of <code>${project.build.directory}</code> for this
+     * execution. If not supplied by maven, this defaults to <code>target</code>
+     * in the base directory.
+     *
+     * @return The project build directory
+     */
+    public String getProjectBuildDir() {
+        return (projectBuildDir == null) ? new File( getBaseDir(), "target" ).getPath() : projectBuildDir;
+    }
+
+    /**
+     * Discard the options of any previous execution, and start again from
+     * the default defaults
+     */
+    protected void resetOptions() {
+        defaultOptions = new SchemagenOptions();
+        defaultOptions.setParent( new SchemagenOptions.DefaultSchemagenOptions( getProjectBuildDir() ) );
+        optIndex.clear();
+        scopedOptions = new PathPatternTrie<Source>();
+        scopeChains.clear();
+    }
+
+    /**
+     * Return the execution-level default options
      * @return The default options
      */
     protected SchemagenOptions getDefaultOptions() {
@@ -183,33 +643,101 @@ public class SchemagenMojo
     }
 
     /**
-     * Handle the default options by creating a default options object and assigning
-     * the options values from the given source object.
+     * Handle the default options by merging the options values from the given
+     * source object into the execution-level default options. Where more than
+     * one default options element sets the same option, the last one wins.
      * @param defOptionsSource The source object containing the default options
      */
     protected void handleDefaultOptions( Source defOptionsSource ) {
-        if (defaultOptions != null) {
-            defOptionsSource.setParent( defaultOptions );
-        }
-        defaultOptions = defOptionsSource;
+        defaultOptions.overrideFrom( defOptionsSource );
     }
 
     /**
      * Process the given options specification for one of the input files
-     * by attaching the default options and indexing.
+     * by indexing it. The options are placed in the hierarchy of options by
+     * {@link #linkScopedOptions()}, once all of the options have been seen.
      *
      * @param optionSpec Specification of the options for a given file
      */
     protected void handleOption( Source optionSpec ) {
         if (optionSpec.getFileName() != null) {
-            optionSpec.setParent( getDefaultOptions() );
-            optIndex.put( optionSpec.getFileName(), optionSpec );
+            if (PathPatternTrie.isPattern( optionSpec.getFileName() )) {
+                scopedOptions.add( optionSpec.getFileName(), optionSpec );
+            }
+            else {
+                optIndex.put( optionSpec.getFileName(), optionSpec );
+            }
         }
         else {
             getLog().info( "ignoring <source> element because the fileName is not specified" );
         }
     }
 
+    /**
+     * Build the hierarchy of options: the options for each individual file are
+     * placed below those of every pattern that matches the file, from the most
+     * specific to the least, which in turn are below the execution-level and
+     * plugin-level defaults. Each level is frozen, so that the effective value
+     * of each option at each level is only computed once. The configured
+     * source objects are copied rather than linked, so that they are left
+     * unchanged for the next execution.
+     */
+    protected void linkScopedOptions() {
+        defaultOptions.freeze();
+
+        for (Map.Entry<String, SchemagenOptions> e: optIndex.entrySet()) {
+            SchemagenOptions so = SchemagenOptions.layer( e.getValue(), getScopedOptions( e.getKey() ) );
+            so.freeze();
+            e.setValue( so );
+        }
+    }
+
+    /**
+     * Return the options that apply to the given file in the absence of options
+     * for the file itself: those of the matching patterns, most specific first,
+     * then the defaults
+     *
+     * @param fileName The name of an input file
+     * @return The options for the file
+     */
+    protected SchemagenOptions getScopedOptions( String fileName ) {
+        return getScopeChain( scopedOptions.matchAll( fileName ) );
+    }
+
+    /**
+     * Return the options that apply to the given file, including the options
+     * for the file itself, if any
+     *
+     * @param fileName The name of an input file
+     * @return The options for the file
+     */
+    protected SchemagenOptions getFileOptions( String fileName ) {
+        SchemagenOptions so = optIndex.get( fileName );
+        return (so == null) ? getScopedOptions( fileName ) : so;
+    }
+
+    /**
+     * Return the frozen options hierarchy for the given patterns, most specific
+     * first. Files matched by the same patterns share the same hierarchy, as do
+     * files whose patterns share the same less specific patterns.
+     *
+     * @param scopes The options of the matching patterns, most specific first
+     * @return The options hierarchy
+     */
+    protected synchronized SchemagenOptions getScopeChain( List<Source> scopes ) {
+        if (scopes.isEmpty()) {
+            return getDefaultOptions();
+        }
+        SchemagenOptions chain = scopeChains.get( scopes );
+        if (chain == null) {
+            List<Source> key = new ArrayList<Source>( scopes );
+            chain = SchemagenOptions.layer( key.get( 0 ), getScopeChain( key.subList( 1, key.size() ) ) );
+            chain.freeze();
+            scopeChains.put( key, chain );
+        }
+        return chain;
+    }
+
     /**
      * Delegate the processing of the given file to schemagen itself
      * @param fileName
@@ -227,13 +755,12 @@ public class SchemagenMojo
         SchemagenOptions so = optIndex.get( fileName );
         getLog().info( "so = " + so );
 
-        // if we have no options carrier for this file, we create one to contain
-        // the name of the input file, and link it to the defaults
+        // if we have no options carrier for this file, we use the options of
+        // the matching patterns, or the defaults
         String soFileName;
         if (so == null) {
-            so = new Source();
+            so = getScopedOptions( fileName );
             soFileName = fileName;
-            so.setParent( getDefaultOptions() );
         } else {
         	soFileName = so.getOption( OPT.INPUT ).asLiteral().getString();
         }
@@ -247,19 +774,202 @@ public class SchemagenMojo
         getLog().info( "getBaseDir() = " + getBaseDir() );
         soFileName = relative ? "file:" + baseDir + File.separator + soFileName : soFileName;
         getLog().info( "input after adjustment: " + soFileName );
-        Resource input = ResourceFactory.createResource( soFileName );
-        so.setOption( OPT.INPUT, input );
+
+        // a compressed local input is read as if it were the uncompressed file
+        String inputURI = relative ? CompressedInput.stripCompression( soFileName ) : soFileName;
+        Resource input = ResourceFactory.createResource( inputURI );
+
+        // the input is set on an options object private to this file, so that
+        // shared options are never modified while translating
+        SchemagenOptions fileOptions = new SchemagenOptions();
+        fileOptions.setParent( so );
+        fileOptions.setOption( OPT.INPUT, input );
+        so = fileOptions;
+
+        SchemagenAdapter adapter = new SchemagenAdapter();
+        File inputFile = relative ? new File( getBaseDir(), fileName ) : null;
+        File sourceFile = inputFile;
+        if (RemoteVocabularyCache.isRemote( soFileName )) {
+            // remote inputs are read from, and checked for staleness against, the cached copy
+            RemoteVocabularyCache.CachedDocument doc = resolveRemote( soFileName );
+            adapter.setLocalCopy( doc.getFile(), doc.getSyntax() );
+            inputFile = doc.getFile();
+        }
+        adapter.setInputFile( inputFile );
+        String optionsDigest = BuildState.optionsDigest( so, getDigestedSettings() );
+        if (!isStale( fileName, adapter, optionsDigest )) {
+            getLog().info( "Skipping " + fileName + ": output is up to date" );
+            return;
+        }
 
         getLog().info( "about to call run(): " );
         ensureTargetDirectory( so );
-        new SchemagenAdapter().run( so );
+        if (sourceFile != null) {
+            removeMessages( sourceFile );
+        }
+        // schemagen queries the options many times, so resolve them just once
+        ResolvedOptions resolved = new ResolvedOptions( so );
+        try {
+            adapter.run( resolved );
+        }
+        catch (RuntimeException e) {
+            // show the failure against the input in the IDE
+            if (sourceFile != null) {
+                addError( sourceFile, e );
+            }
+            throw asMojoExecutionException( fileName, e );
+        }
+
+        if (inputFile != null && buildState != null) {
+            try {
+                File outputFile = adapter.getOutputFile( resolved );
+                List<File> outputs = (outputFile == null) ? Collections.<File>emptyList() : Collections.singletonList( outputFile );
+                for (File replaced: buildState.recordGeneration( fileName, adapter.getInputDigest(), optionsDigest, outputs )) {
+                    removeOutput( replaced, "previous" );
+                }
+            }
+            catch (IOException e) {
+                getLog().warn( "Failed to record build state for " + fileName + ": " + e.getMessage() );
+            }
+        }
+    }
+
+
+    /**
+     * Translate the given inputs, concurrently if more than one thread has been
+     * configured. When running concurrently, the log output for each input is
+     * written in one block, in the same order as the inputs are given regardless
+     * of the order in which they finish. If any inputs fail, the failure of the
+     * first of them in that order is reported. In fail-fast mode, the first
+     * failure cancels all of the translations that have not yet started.
+     *
+     * @param fileNames The names of the inputs to translate
+     */
+    protected void translate( List<String> fileNames )
+        throws MojoExecutionException
+    {
+        int nThreads = Math.min( getThreadCount(), fileNames.size() );
+        if (nThreads <= 1) {
+            for (String fileName: fileNames) {
+                processFile( fileName );
+            }
+            return;
+        }
+
+        getLog().info( "Translating " + fileNames.size() + " inputs using " + nThreads + " threads" );
+        ExecutorService executor = Executors.newFixedThreadPool( nThreads );
+        CompletionService<String> completion = new ExecutorCompletionService<String>( executor );
+        List<TranslationTask> tasks = new ArrayList<TranslationTask>();
+        Map<Future<String>, TranslationTask> futures = new HashMap<Future<String>, TranslationTask>();
+        int next = 0;
+
+        try {
+            for (String fileName: fileNames) {
+                TranslationTask task = new TranslationTask( fileName, new BufferedLog( super.getLog() ) );
+                task.setFuture( completion.submit( task ) );
+                tasks.add( task );
+                futures.put( task.getFuture(), task );
+            }
+
+            for (int i = 0;  i < tasks.size();  i++) {
+                TranslationTask task = futures.get( completion.take() );
+                task.complete();
+
+                if (failFast && task.getFailure() != null) {
+                    getLog().error( "Translation of " + task.getFileName() + " failed, cancelling remaining translations" );
+                    break;
+                }
+
+                // write out the logs of the tasks that are now complete in sequence
+                while (next < tasks.size() && tasks.get( next ).isComplete()) {
+                    tasks.get( next++ ).getLog().flush();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while translating inputs" );
+        }
+        finally {
+            // tasks that have not started are cancelled, and we wait for those
+            // that are in progress so that nothing is written after we return
+            for (Future<String> f: futures.keySet()) {
+                f.cancel( false );
+            }
+            executor.shutdown();
+            awaitTermination( executor );
+        }
+
+        // report the remaining completed tasks, and the first failure, in order
+        MojoExecutionException failure = null;
+        for (int i = 0;  i < tasks.size();  i++) {
+            TranslationTask task = tasks.get( i );
+            task.complete();
+            if (task.isComplete()) {
+                if (i >= next) {
+                    task.getLog().flush();
+                }
+                if (task.getFailure() != null) {
+                    MojoExecutionException mee = asMojoExecutionException( task.getFileName(), task.getFailure() );
+                    getLog().error( mee.getMessage() );
+                    if (failure == null) {
+                        failure = mee;
+                    }
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
     }
 
+    /**
+     * Return the number of threads to use for translation, from the <code>threads</code>
+     * parameter. A value ending in <code>C</code> is multiplied by the number of
+     * available processors.
+     *
+     * @return The number of threads, at least one
+     */
+    protected int getThreadCount() {
+        String t = (threads == null) ? "1" : threads.trim();
+        int n;
+        try {
+            if (t.endsWith( "C" ) || t.endsWith( "c" )) {
+                float factor = Float.parseFloat( t.substring( 0, t.length() - 1 ) );
+                n = (int) (factor * Runtime.getRuntime().availableProcessors());
+            }
+            else {
+                n = Integer.parseInt( t );
+            }
+        }
+        catch (NumberFormatException e) {
+            getLog().warn( "Ignoring illegal value for threads: " + threads );
+            n = 1;
+        }
+        return Math.max( 1, n );
+    }
 
     /***********************************/
     /* Internal implementation methods */
     /***********************************/
 
+    public void setProjectBuildDir( String projectBuildDir ) {
+        this.projectBuildDir = projectBuildDir;
+    }
+
+    public void setBaseDir( File baseDir ) {
+        this.baseDir = baseDir;
+    }
+
+    public void setThreads( String threads ) {
+        this.threads = threads;
+    }
+
+    public void setFailFast( boolean failFast ) {
+        this.failFast = failFast;
+    }
+
     public void setExcludes( String[] excludes ) {
         this.excludes = excludes;
     }
@@ -268,6 +978,10 @@ public class SchemagenMojo
         this.includes = includes;
     }
 
+    public void setExecutionId( String executionId ) {
+        this.executionId = executionId;
+    }
+
     /**
      * Append the given string to the array of included file patterns
      * @param incl File pattern string to append to <code>this.includes</code>
@@ -307,6 +1021,272 @@ public class SchemagenMojo
         return (baseDir == null) ? new File(".").getAbsoluteFile() : baseDir;
     }
 
+    /**
+     * Return the build context for this execution. The context injected by an
+     * IDE may be bound to the thread that runs the mojo, in which case the
+     * underlying context is returned so that it can be used from the
+     * translation threads. Without an injected context, e.g. in tests, the
+     * default non-incremental context is used.
+     *
+     * @return The build context to use for this execution
+     */
+    protected BuildContext resolveBuildContext() {
+        if (buildContext == null || buildContext instanceof ThreadBuildContext) {
+            return ThreadBuildContext.getContext();
+        }
+        return buildContext;
+    }
+
+    /**
+     * Return the build context for the current execution
+     * @return The build context
+     */
+    protected BuildContext getBuildContext() {
+        if (context == null) {
+            context = resolveBuildContext();
+        }
+        return context;
+    }
+
+    public void setProject( MavenProject project ) {
+        this.project = project;
+    }
+
+    public void setBuildContext( BuildContext buildContext ) {
+        this.buildContext = buildContext;
+        this.context = null;
+    }
+
+    /**
+     * In an incremental build, return only those inputs that have changed since
+     * the last build. Otherwise, or if the project configuration has changed,
+     * all of the inputs are returned.
+     *
+     * @param fileNames The names of all of the inputs
+     * @return The names of the inputs that may need to be translated
+     */
+    protected List<String> selectChanged( List<String> fileNames ) {
+        BuildContext bc = getBuildContext();
+        if (!bc.isIncremental() || bc.hasDelta( "pom.xml" )) {
+            return fileNames;
+        }
+
+        List<String> changed = new ArrayList<String>();
+        for (String fileName: fileNames) {
+            if (!RemoteVocabularyCache.isRemote( fileName ) && bc.hasDelta( new File( getBaseDir(), fileName ) )) {
+                changed.add( fileName );
+            }
+        }
+        getLog().info( "Incremental build: " + changed.size() + " of " + fileNames.size() + " inputs changed" );
+        return changed;
+    }
+
+    /**
+     * Tell the build context that the given output file has changed. Calls
+     * on the build context are serialized, since the translation threads
+     * share it.
+     */
+    protected void refresh( File file ) {
+        BuildContext bc = getBuildContext();
+        synchronized (bc) {
+            bc.refresh( file );
+        }
+    }
+
+    /**
+     * Attach an error marker for the given failure to the given input
+     */
+    protected void addError( File file, Throwable error ) {
+        BuildContext bc = getBuildContext();
+        synchronized (bc) {
+            bc.addMessage( file, 0, 0, error.getMessage(), BuildContext.SEVERITY_ERROR, error );
+        }
+    }
+
+    /**
+     * Remove any markers from a previous translation of the given input
+     */
+    protected void removeMessages( File file ) {
+        BuildContext bc = getBuildContext();
+        synchronized (bc) {
+            bc.removeMessages( file );
+        }
+    }
+
+    /**
+     * Return the file in which the state of the last build is recorded
+     * @return The build state file
+     */
+    protected File getBuildStateFile() {
+        return new File( getProjectBuildDir(), BuildState.stateFileName( executionId ) );
+    }
+
+    /**
+     * Load the state of the last build. If the state cannot be read, every
+     * input will be translated.
+     */
+    protected void loadBuildState() {
+        buildState = new BuildState( getBuildStateFile() );
+        try {
+            buildState.load();
+        }
+        catch (IOException e) {
+            getLog().warn( "Failed to read build state, all inputs will be translated: " + e.getMessage() );
+        }
+    }
+
+    /**
+     * Save the state of this build, so that the next build can skip inputs
+     * that have not changed
+     */
+    protected void saveBuildState() {
+        if (buildState != null) {
+            try {
+                buildState.save();
+            }
+            catch (IOException e) {
+                getLog().warn( "Failed to save build state: " + e.getMessage() );
+            }
+        }
+    }
+
+    /**
+     * Return the plugin settings, other than the schemagen options, that change
+     * the generated output, so that they are part of the options digest
+     * recorded for each input.
+     */
+    protected String[] getDigestedSettings() {
+        return new String[] { "extractTerms=" + extractTerms, "fastInference=" + fastInference };
+    }
+
+    /**
+     * Return true if the given input needs to be translated, because its
+     * content or options have changed since it was last translated, or its
+     * output is missing. A remote input is checked against its cached copy.
+     * Every input is translated when <code>force</code> is set, and so are
+     * inputs with no local content and inputs whose staleness cannot be
+     * determined.
+     *
+     * @param fileName The name of the input
+     * @param adapter The adapter that will translate the input, which holds
+     * the local input file, if any
+     * @param optionsDigest Digest of the effective options for the input
+     * @return True if schemagen should be run for this input
+     */
+    protected boolean isStale( String fileName, SchemagenAdapter adapter, String optionsDigest ) {
+        if (force || !adapter.hasInputFile() || buildState == null) {
+            return true;
+        }
+
+        try {
+            return buildState.isStale( fileName, adapter.getInputDigest(), optionsDigest );
+        }
+        catch (IOException e) {
+            getLog().warn( "Failed to check whether " + fileName + " is up to date: " + e.getMessage() );
+            return true;
+        }
+    }
+
+    /**
+     * Return the directory in which remote vocabularies are cached
+     * @return The cache directory
+     */
+    protected File getCacheDirectory() {
+        if (cacheDirectory == null) {
+            return new File( System.getProperty( "user.home" ), ".m2" + File.separator + "schemagen-cache" );
+        }
+        return cacheDirectory;
+    }
+
+    /**
+     * Return a new remote vocabulary cache, configured from the mojo parameters
+     * @return A remote vocabulary cache
+     */
+    protected RemoteVocabularyCache newRemoteCache() {
+        RemoteVocabularyCache cache = new RemoteVocabularyCache( getCacheDirectory(), offline );
+        cache.setConnectTimeout( connectTimeout );
+        cache.setReadTimeout( readTimeout );
+        return cache;
+    }
+
+    /**
+     * Start fetching all of the remote vocabularies among the given inputs in
+     * the background, so that network latency overlaps with the translation of
+     * local inputs. Translation of a remote input waits for its prefetch.
+     *
+     * @param fileNames The names of the inputs
+     */
+    protected void prefetchRemote( List<String> fileNames ) {
+        List<String> urls = new ArrayList<String>();
+        for (String fileName: fileNames) {
+            if (RemoteVocabularyCache.isRemote( fileName )) {
+                urls.add( fileName );
+            }
+        }
+
+        if (!urls.isEmpty()) {
+            getLog().info( "Prefetching " + urls.size() + " remote vocabularies" );
+            remoteCache.prefetch( urls, Math.min( prefetchThreads, urls.size() ) );
+        }
+    }
+
+    /**
+     * Return a local copy of the remote vocabulary at the given URL
+     *
+     * @param url The URL of a remote vocabulary
+     * @return The cached copy of the vocabulary
+     * @exception MojoExecutionException If the vocabulary could not be fetched,
+     * and there is no cached copy
+     */
+    protected RemoteVocabularyCache.CachedDocument resolveRemote( String url )
+        throws MojoExecutionException
+    {
+        if (remoteCache == null) {
+            remoteCache = newRemoteCache();
+        }
+
+        try {
+            RemoteVocabularyCache.CachedDocument doc = remoteCache.resolve( url );
+            getLog().info( (doc.isFetched() ? "Fetched " : "Using cached copy of ") + url );
+            return doc;
+        }
+        catch (IOException e) {
+            throw new MojoExecutionException( "Failed to fetch remote vocabulary " + url + ": " + e.getMessage(), e );
+        }
+    }
+
+    /**
+     * Delete the Java files that were generated from inputs which are no longer
+     * being processed, e.g. because the vocabulary file has been removed
+     *
+     * @param fileNames The names of the current inputs
+     */
+    protected void removeObsoleteOutputs( List<String> fileNames ) {
+        if (buildState == null) {
+            return;
+        }
+
+        for (File output: buildState.removeObsolete( fileNames )) {
+            removeOutput( output, "obsolete" );
+        }
+    }
+
+    /**
+     * Delete a Java file that is no longer generated, if it exists
+     *
+     * @param output The generated file
+     * @param reason Why the file is no longer generated, for the log
+     */
+    protected void removeOutput( File output, String reason ) {
+        if (output.isFile()) {
+            getLog().info( "Removing " + reason + " output " + output.getPath() );
+            if (!output.delete()) {
+                getLog().warn( "Failed to delete " + reason + " output " + output.getPath() );
+            }
+            refresh( output );
+        }
+    }
+
     /**
      * Ensure that the output directory exists
      */
@@ -329,19 +1309,509 @@ public class SchemagenMojo
     }
 
 
+    /**
+     * Wait for the tasks that are already running on the given executor to finish
+     */
+    protected void awaitTermination( ExecutorService executor ) {
+        try {
+            while (!executor.awaitTermination( 1, TimeUnit.SECONDS )) {
+                getLog().debug( "Waiting for translations in progress to finish" );
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Return the cause of a failed translation as a mojo exception
+     */
+    protected MojoExecutionException asMojoExecutionException( String fileName, Throwable cause ) {
+        if (cause instanceof MojoExecutionException) {
+            return (MojoExecutionException) cause;
+        }
+        return new MojoExecutionException( "Failed to translate " + fileName + ": " + cause.getMessage(), cause );
+    }
+
+
     /***********************************/
     /* Inner classes                   */
     /***********************************/
 
+    /**
+     * Task to translate one input on a worker thread, with the log for that
+     * input buffered
+     */
+    protected class TranslationTask
+        implements Callable<String>
+    {
+        private String fileName;
+        private BufferedLog log;
+        private Future<String> future;
+        private boolean complete = false;
+        private Throwable failure;
+
+        public TranslationTask( String fileName, BufferedLog log ) {
+            this.fileName = fileName;
+            this.log = log;
+        }
+
+        public String call() throws Exception {
+            taskLog.set( log );
+            try {
+                processFile( fileName );
+            }
+            finally {
+                taskLog.remove();
+            }
+            return fileName;
+        }
+
+        /**
+         * Record the outcome of this task, if it has run. A task that was
+         * cancelled before it started is never complete.
+         */
+        public void complete() {
+            if (complete || !future.isDone() || future.isCancelled()) {
+                return;
+            }
+            try {
+                future.get();
+            }
+            catch (ExecutionException e) {
+                failure = e.getCause();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            complete = true;
+        }
+
+        public void setFuture( Future<String> future ) {
+            this.future = future;
+        }
+
+        public Future<String> getFuture() {
+            return future;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public BufferedLog getLog() {
+            return log;
+        }
+
+        /** Return true if this task has run, successfully or not */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        /** Return the cause of failure of this task, or null */
+        public Throwable getFailure() {
+            return failure;
+        }
+    }
+
     /**
      * Adapter class to invoke the schemagen tool with a given set of options
      */
     protected class SchemagenAdapter
         extends schemagen
     {
+        /** Local copy of the input, if it is not to be read from its URI */
+        private File localCopy;
+
+        /** The syntax of the local copy */
+        private String localSyntax;
+
+        /** The local file holding the content of the input, if any */
+        private File inputFile;
+
+        /** The digest of the content of the input file, once computed */
+        private String inputDigest;
+
+        /** The file the generated source will be written to, if any */
+        private File outputFile;
+
+        /** Buffer holding the generated source until the output is closed */
+        private ByteArrayOutputStream outputBuffer;
+
+        /** The syntax of the input, once resolved */
+        private String syntax;
+        private boolean syntaxResolved = false;
+
+        /** True if only the triples needed to generate terms have been read */
+        private boolean termsOnly = false;
+
+        /** The namespace guessed from the whole input, if only the terms have been read */
+        private String guessedNamespace;
+
         public void run( SchemagenOptions options ) {
             go( options );
         }
+
+        /**
+         * Read the input from the given local file rather than from its URI,
+         * which is still used as the base URI and for naming the output
+         *
+         * @param file A local copy of the input
+         * @param syntax The syntax of the local copy, used if the options do
+         * not give an encoding
+         */
+        public void setLocalCopy( File file, String syntax ) {
+            this.localCopy = file;
+            this.localSyntax = syntax;
+        }
+
+        /**
+         * Set the local file holding the content of the input, which identifies
+         * the content when looking for the parsed input in the model cache
+         *
+         * @param file The input file, or the local copy of a remote input
+         */
+        public void setInputFile( File file ) {
+            this.inputFile = file;
+            this.inputDigest = null;
+        }
+
+        /** Return true if the content of the input is held in a local file */
+        public boolean hasInputFile() {
+            return inputFile != null;
+        }
+
+        /**
+         * Return a digest of the content of the input file. The file is only
+         * read once, however many times its digest is used: to check whether
+         * the input is stale, to find its parsed model, and to record the
+         * state of the build.
+         *
+         * @return The content digest as a hex string
+         * @throws IOException If the input file cannot be read
+         */
+        public String getInputDigest() throws IOException {
+            if (inputDigest == null) {
+                inputDigest = BuildState.digest( inputFile );
+            }
+            return inputDigest;
+        }
+
+        /**
+         * Read the input, and add the entailed types if the lightweight
+         * closure is used in place of a reasoner
+         */
+        @Override
+        protected void selectInput() {
+            readSource();
+            if (isFastInference()) {
+                RdfsClosure closure = new RdfsClosure( m_source.getProfile() );
+                int added = closure.apply( m_source.getBaseModel().getGraph() );
+                getLog().info( "Added " + added + " entailed types to " + m_options.getInputOption().getURI() );
+            }
+        }
+
+        /**
+         * Create the source model. If the lightweight closure is used in place
+         * of a reasoner, the model has no reasoner.
+         */
+        @Override
+        protected void determineLanguage() {
+            if (!isFastInference()) {
+                super.determineLanguage();
+                return;
+            }
+
+            m_source = ModelFactory.createOntologyModel( OntModelSpec.RDFS_MEM, null );
+            m_source.getDocumentManager().setProcessImports( false );
+            if (m_options.hasNoStrictOption()) {
+                m_source.setStrictMode( false );
+            }
+        }
+
+        /**
+         * Return true if use-inf is set and is to be met by the lightweight
+         * closure. The closure gives the same types as Jena's RDFS reasoner,
+         * but not those of the OWL and DAML rule reasoners, so it is only
+         * used for RDFS inputs.
+         */
+        protected boolean isFastInference() {
+            return fastInference && m_options.hasUseInfOption() && m_options.hasLangRdfsOption();
+        }
+
+        /**
+         * Read the input, taking the parsed statements from the model cache if
+         * the same content has already been parsed in this build
+         */
+        protected void readSource() {
+            if (inputFile == null) {
+                if (localCopy == null) {
+                    super.selectInput();
+                }
+                else {
+                    readInput( m_source );
+                }
+                return;
+            }
+
+            String input = m_options.getInputOption().getURI();
+            ModelCache cache = getModelCache();
+            boolean extract = isExtractTerms();
+            String key;
+            try {
+                key = ModelCache.key( input, getSyntax(), getInputDigest() );
+            }
+            catch (IOException e) {
+                abort( "Failed to read input source " + input, e );
+                return;
+            }
+            String name = input;
+            if (extract) {
+                // a reduced model must not be used for an input that needs all of it
+                key = key + " terms";
+                name = name + " terms";
+            }
+
+            Model parsed = cache.get( key );
+            if (parsed == null) {
+                parsed = loadParsedInput( name, key );
+                if (parsed == null) {
+                    parsed = extract ? TermExtractionGraph.createModel() : ModelFactory.createDefaultModel();
+                    readInput( parsed );
+                    if (extract) {
+                        TermExtractionGraph g = (TermExtractionGraph) parsed.getGraph();
+                        g.recordGuessedNamespace();
+                        getLog().info( "Kept " + g.size() + " of " + g.getAdded() + " triples from " + input );
+                    }
+                    storeParsedInput( name, key, parsed );
+                }
+                else {
+                    getLog().info( "Loaded stored parse of " + input );
+                }
+                cache.put( key, parsed );
+            }
+            else {
+                getLog().info( "Using cached parse of " + input );
+            }
+            m_source.setNsPrefixes( parsed );
+            m_source.add( parsed );
+            if (extract) {
+                termsOnly = true;
+                guessedNamespace = m_source.getNsPrefixURI( TermExtractionGraph.GUESSED_NAMESPACE_PREFIX );
+                m_source.removeNsPrefix( TermExtractionGraph.GUESSED_NAMESPACE_PREFIX );
+            }
+        }
+
+        /**
+         * Guess the namespace of the input. If only the terms have been read,
+         * the namespace guessed while reading the whole input is used.
+         */
+        @Override
+        protected String guessNamespace() {
+            return termsOnly ? guessedNamespace : super.guessNamespace();
+        }
+
+        /**
+         * Return true if only the triples needed to generate terms should be
+         * read, which is not possible if the whole input is to be included in
+         * the output or reasoned over
+         */
+        protected boolean isExtractTerms() {
+            return extractTerms && !m_options.hasIncludeSourceOption() && !m_options.hasUseInfOption();
+        }
+
+        /**
+         * Return the syntax to read the input with: the encoding option if
+         * given, otherwise the syntax the remote server gave for a remote
+         * input, otherwise the syntax found by the {@link SyntaxResolver}
+         * from the name or content of the input
+         *
+         * @return The syntax, or null to determine it from the URI
+         */
+        protected String getSyntax() {
+            if (!syntaxResolved) {
+                String encoding = m_options.getEncodingOption();
+                File file = (localCopy == null) ? inputFile : localCopy;
+                try {
+                    syntax = SyntaxResolver.resolve( (encoding == null) ? localSyntax : encoding,
+                                                     m_options.getInputOption().getURI(), file );
+                }
+                catch (IOException e) {
+                    abort( "Failed to read input source " + file, e );
+                }
+                syntaxResolved = true;
+            }
+            return syntax;
+        }
+
+        /** Parse the input into the given model */
+        protected void readInput( Model model ) {
+            String input = m_options.getInputOption().getURI();
+            File file = (localCopy == null) ? inputFile : localCopy;
+            try {
+                if (file == null) {
+                    FileManager.get().readModel( model, SchemagenUtils.urlCheck( input ), getSyntax() );
+                }
+                else {
+                    InputStream in = isMapped( file ) ? new MappedFileInputStream( file )
+                                                      : new BufferedInputStream( new FileInputStream( file ) );
+                    try {
+                        if (localCopy == null && CompressedInput.isCompressed( file.getName() )) {
+                            in = CompressedInput.decompress( in, file.getName() );
+                        }
+                        model.read( in, input, getSyntax() );
+                    }
+                    finally {
+                        in.close();
+                    }
+                }
+            }
+            catch (IOException e) {
+                abort( "Failed to read " + file + " for input source " + input, e );
+            }
+            catch (JenaException e) {
+                abort( "Failed to read input source " + input, e );
+            }
+        }
+
+        /**
+         * The generated Java source is collected in memory, rather than
+         * written directly to the output file, so that the output file can
+         * be left untouched if its content has not changed
+         */
+        @Override
+        protected void selectOutput() {
+            outputFile = getOutputFile( m_options );
+            if (outputFile == null) {
+                super.selectOutput();
+                return;
+            }
+
+            File dir = outputFile.getParentFile();
+            if (dir != null && !dir.exists()) {
+                dir.mkdirs();
+            }
+            outputBuffer = new ByteArrayOutputStream();
+            m_output = new PrintStream( outputBuffer );
+
+            // check for DOS line endings
+            if (m_options.hasDosOption()) {
+                m_nl = "\r\n";
+            }
+        }
+
+        /**
+         * The generation date is substituted with a placeholder, so that it
+         * can be disregarded when comparing with the existing output
+         */
+        @Override
+        protected void setGlobalReplacements() {
+            // earlier replacements take precedence over the standard date
+            addReplacementPattern( "date", DATE_PLACEHOLDER );
+            super.setGlobalReplacements();
+        }
+
+        /**
+         * Write the buffered output to the output file, unless the existing
+         * file differs from it only in the generation date
+         */
+        @Override
+        protected void closeOutput() {
+            super.closeOutput();
+            if (outputBuffer == null) {
+                return;
+            }
+
+            String content = outputBuffer.toString();
+            outputBuffer = null;
+            try {
+                if (isUnchanged( outputFile, content )) {
+                    getLog().info( "Output is unchanged, not rewriting " + outputFile.getPath() );
+                    return;
+                }
+
+                String date = new SimpleDateFormat( "dd MMM yyyy HH:mm" ).format( new Date() );
+                OutputStream out = new FileOutputStream( outputFile );
+                try {
+                    out.write( content.replace( DATE_PLACEHOLDER, date ).getBytes() );
+                }
+                finally {
+                    out.close();
+                }
+                refresh( outputFile );
+            }
+            catch (IOException e) {
+                abort( "I/O error while trying to write file: " + outputFile.getPath(), e );
+            }
+        }
+
+        /**
+         * Return true if the given file exists and has the given content, allowing
+         * for any generation date in the file in place of the date placeholders
+         */
+        protected boolean isUnchanged( File file, String content )
+            throws IOException
+        {
+            if (!file.isFile()) {
+                return false;
+            }
+
+            ByteArrayOutputStream existing = new ByteArrayOutputStream( (int) file.length() );
+            InputStream in = new FileInputStream( file );
+            try {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read( buf )) > 0) {
+                    existing.write( buf, 0, n );
+                }
+            }
+            finally {
+                in.close();
+            }
+
+            StringBuilder pattern = new StringBuilder();
+            String sep = "";
+            for (String part: content.split( Pattern.quote( DATE_PLACEHOLDER ), -1 )) {
+                pattern.append( sep ).append( Pattern.quote( part ) );
+                sep = "[^\\r\\n]*";
+            }
+            return Pattern.matches( pattern.toString(), existing.toString() );
+        }
+
+        /**
+         * Return the Java file that schemagen will write for the given options,
+         * following the same rules as {@link #selectOutput()}, or null if
+         * the output will be sent to standard out.
+         *
+         * @param options The options for one input
+         * @return The output file, or null
+         */
+        public File getOutputFile( SchemagenOptions options ) {
+            m_options = options;
+
+            String outFile = options.getOutputOption();
+            if (outFile == null) {
+                return null;
+            }
+
+            String packageName = options.getPackagenameOption();
+            if (packageName != null) {
+                String packagePath = "";
+                for (String p: packageName.split( "\\." )) {
+                    packagePath = packagePath + File.separator + p;
+                }
+                if (!outFile.endsWith( packagePath )) {
+                    outFile = outFile + packagePath;
+                }
+            }
+
+            File out = new File( outFile );
+            if (out.isDirectory() || (!out.exists() && !outFile.endsWith( ".java" ))) {
+                out = new File( outFile + File.separator + getClassName() + ".java" );
+            }
+            return out;
+        }
     }
 }
 
@@ -19,7 +19,6 @@ package org.openjena.tools.schemagen;
 import java.util.*;
 
 import jena.schemagen;
-import jena.schemagen.OptionDefinition;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,23 +28,38 @@ import com.hp.hpl.jena.rdf.model.*;
 
 /**
  * <p>An extension to the option class built in to {@link schemagen}, in which we
- * allow a two-level defaults hierarchy. Each option is tested against the local
- * object. If the result is <code>true</code> or non-null, or if the object has
- * no parent options object, then the result stands. Otherwise, the option value
- * is delegated to the parent. This allows us to specify global defaults for an
- * entire group of files to be processed with maven, while still allowing each
- * file to have its own local options.
+ * allow a hierarchy of defaults of any depth. Each option is tested against the
+ * local object. If the result is <code>true</code> or non-null, or if the object
+ * has no parent options object, then the result stands. Otherwise, the option
+ * value is delegated to the parent, and so on up the chain. This allows us to
+ * specify plugin and execution defaults, options for groups of files matched by
+ * a pattern, and options for each individual file, with the most specific taking
+ * precedence.
+ * </p>
+ * <p>Once the options are complete, the hierarchy can be {@linkplain #freeze()
+ * frozen}. A frozen options object, and all of its parents, can no longer be
+ * changed, and the effective value of each option is computed once, on first
+ * use, and memoized, so that looking up an option costs the same however deep
+ * the hierarchy is.
+ * </p>
+ * <p>The local option values are held in a compact array indexed by option,
+ * rather than in an RDF configuration model, since a build may have a large
+ * number of options objects each holding just a few values. RDF nodes for the
+ * values are only created when schemagen asks for them.
  * </p>
  *
  * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
 */
 public class SchemagenOptions
-    extends schemagen.SchemagenOptionsImpl
+    extends AbstractSchemagenOptions
 {
     /***********************************/
     /* Constants                       */
     /***********************************/
 
+    /** The number of distinct options */
+    protected static final int N_OPTIONS = OPT.values().length;
+
     /***********************************/
     /* Static variables                */
     /***********************************/
@@ -60,12 +74,25 @@ public class SchemagenOptions
     /** The parent options for this options instance */
     private SchemagenOptions parent;
 
+    /**
+     * The local values of the options, indexed by option ordinal. Each value
+     * is a String, Boolean or Resource, in the order in which they were set.
+     * Allocated when the first option is set.
+     */
+    private List<Object>[] values;
+
+    /** True once this object, and therefore its parents, can no longer be changed */
+    private volatile boolean frozen = false;
+
+    /** The effective values of the options, computed on first use once frozen */
+    private ResolvedOptions.ResolvedValue[] resolved;
+
     /***********************************/
     /* Constructors                    */
     /***********************************/
 
     public SchemagenOptions() {
-        super( new String[]{} );
+        // no local options until set
     }
 
     /***********************************/
@@ -77,6 +104,7 @@ public class SchemagenOptions
      * @param parent Parent options object, or null
      */
     protected void setParent( SchemagenOptions parent ) {
+        checkNotFrozen();
         this.parent = parent;
     }
 
@@ -141,8 +169,7 @@ public class SchemagenOptions
      * @param value The string value of the option
      */
     public void setOption( OPT option, String value ) {
-        OptionDefinition od = getOpt( option );
-        getConfigRoot().addProperty( od.getDeclarationProperty(), value );
+        addValue( option, value );
     }
 
     /**
@@ -151,8 +178,7 @@ public class SchemagenOptions
      * @param value The Boolean value of the option
      */
     public void setOption( OPT option, boolean value ) {
-        OptionDefinition od = getOpt( option );
-        getConfigRoot().addProperty( od.getDeclarationProperty(), ResourceFactory.createTypedLiteral( value ) );
+        addValue( option, Boolean.valueOf( value ) );
     }
 
     /**
@@ -161,8 +187,7 @@ public class SchemagenOptions
      * @param value The Resource value of the option
      */
     public void setOption( OPT option, Resource value ) {
-        OptionDefinition od = getOpt( option );
-        getConfigRoot().addProperty( od.getDeclarationProperty(), value );
+        addValue( option, value );
     }
 
     /***********************************/
@@ -179,7 +204,7 @@ public class SchemagenOptions
      */
     @Override
     protected boolean isTrue( OPT option ) {
-        return super.isTrue( option ) || (hasParent() && getParent().isTrue( option ));
+        return frozen ? getResolved( option ).isTrue() : computeIsTrue( option );
     }
 
     /**
@@ -188,7 +213,7 @@ public class SchemagenOptions
      */
     @Override
     protected boolean hasValue( OPT option ) {
-        return super.hasValue( option ) || (hasParent() && getParent().hasValue( option ));
+        return getValue( option ) != null;
     }
 
     /**
@@ -197,8 +222,7 @@ public class SchemagenOptions
      */
     @Override
     protected RDFNode getValue( OPT option ) {
-        RDFNode v = super.getValue( option );
-        return (v == null && hasParent()) ? getParent().getValue( option ) : v;
+        return frozen ? getResolved( option ).getValue() : computeValue( option );
     }
 
     /**
@@ -207,8 +231,7 @@ public class SchemagenOptions
      */
     @Override
     protected String getStringValue( OPT option ) {
-        String v = super.getStringValue( option );
-        return (v == null && hasParent()) ? getParent().getStringValue( option ) : v;
+        return frozen ? getResolved( option ).getStringValue() : computeStringValue( option );
     }
 
     /**
@@ -217,7 +240,7 @@ public class SchemagenOptions
      */
     @Override
     protected boolean hasResourceValue( OPT option ) {
-        return super.hasResourceValue( option ) || (hasParent() && getParent().hasResourceValue( option ));
+        return getResource( option ) != null;
     }
 
     /**
@@ -226,8 +249,8 @@ public class SchemagenOptions
      */
     @Override
     protected Resource getResource( OPT option ) {
-        Resource r =  super.getResource( option );
-        return (r == null && hasParent()) ? getParent().getResource( option ) : r;
+        RDFNode v = getValue( option );
+        return (v == null) ? null : v.asResource();
     }
 
     /**
@@ -236,22 +259,201 @@ public class SchemagenOptions
      */
     @Override
     protected List<String> getAllValues( OPT option ) {
-        List<String> l = super.getAllValues( option );
+        return frozen ? getResolved( option ).getAllValues() : computeAllValues( option );
+    }
+
+    /**
+     * Prevent any further change to this options object and its parents. The
+     * effective value of each option is then only computed once, on first
+     * use, so that the cost of looking up an option does not depend on the
+     * depth of the hierarchy of options.
+     */
+    public void freeze() {
+        if (!frozen) {
+            if (hasParent()) {
+                getParent().freeze();
+            }
+            resolved = new ResolvedOptions.ResolvedValue[N_OPTIONS];
+            frozen = true;
+        }
+    }
+
+    /**
+     * Return true if this options object can no longer be changed
+     * @return True if frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Return a new options object, with a copy of the local values of the
+     * given options object and the given parent
+     * @param local The options whose local values are copied
+     * @param parent The parent of the new options object
+     * @return A new options object
+     */
+    public static SchemagenOptions layer( SchemagenOptions local, SchemagenOptions parent ) {
+        SchemagenOptions so = new SchemagenOptions();
+        so.overrideFrom( local );
+        so.setParent( parent );
+        return so;
+    }
+
+    /**
+     * Replace the local values of each option that has a local value in the
+     * given options object with a copy of those values
+     * @param other Options object whose local values take precedence
+     */
+    public void overrideFrom( SchemagenOptions other ) {
+        checkNotFrozen();
+        if (other.values == null) {
+            return;
+        }
+        for (int i = 0;  i < N_OPTIONS;  i++) {
+            if (other.values[i] != null) {
+                if (values == null) {
+                    values = newValues();
+                }
+                values[i] = new ArrayList<Object>( other.values[i] );
+            }
+        }
+    }
+
+    /**
+     * Add a value to the local values of the given option. Setting the same
+     * value more than once has no further effect.
+     */
+    protected void addValue( OPT option, Object value ) {
+        checkNotFrozen();
+        if (values == null) {
+            values = newValues();
+        }
+        List<Object> l = values[option.ordinal()];
+        if (l == null) {
+            l = new ArrayList<Object>( 1 );
+            values[option.ordinal()] = l;
+        }
+        if (!l.contains( value )) {
+            l.add( value );
+        }
+    }
+
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    protected static List<Object>[] newValues() {
+        return new List[N_OPTIONS];
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException( "Options cannot be changed once frozen" );
+        }
+    }
+
+    /** Return the memoized effective value of the given option */
+    protected ResolvedOptions.ResolvedValue getResolved( OPT option ) {
+        ResolvedOptions.ResolvedValue r = resolved[option.ordinal()];
+        if (r == null) {
+            // computing the same value twice on different threads is harmless
+            r = new ResolvedOptions.ResolvedValue( this, option );
+            resolved[option.ordinal()] = r;
+        }
+        return r;
+    }
+
+    /** Return true if the option is true locally, or in the parent */
+    protected boolean computeIsTrue( OPT option ) {
+        return isLocallyTrue( option ) || (hasParent() && getParent().isTrue( option ));
+    }
+
+    /** Return the local value of the option, or that of the parent */
+    protected RDFNode computeValue( OPT option ) {
+        RDFNode v = asNode( getLocalValue( option ) );
+        return (v == null && hasParent()) ? getParent().getValue( option ) : v;
+    }
+
+    /** Return the local value of the option as a string, or that of the parent */
+    protected String computeStringValue( OPT option ) {
+        String v = asString( getLocalValue( option ) );
+        return (v == null && hasParent()) ? getParent().getStringValue( option ) : v;
+    }
+
+    /** Return the local values of the option, or those of the parent */
+    protected List<String> computeAllValues( OPT option ) {
+        List<String> l = getLocalValues( option );
         return (l.isEmpty() && hasParent()) ? getParent().getAllValues( option ) : l;
     }
 
+    /** Return the first local value of the given option, or null */
+    protected Object getLocalValue( OPT option ) {
+        List<Object> l = (values == null) ? null : values[option.ordinal()];
+        return (l == null) ? null : l.get( 0 );
+    }
+
+    /**
+     * Return true if the local value of the given option is true. As for an
+     * RDF configuration, it is an error for the value not to be a boolean.
+     */
+    protected boolean isLocallyTrue( OPT option ) {
+        Object v = getLocalValue( option );
+        if (v == null) {
+            return false;
+        }
+        return (v instanceof Boolean) ? ((Boolean) v).booleanValue() : asNode( v ).asLiteral().getBoolean();
+    }
+
+    /**
+     * Return the local value of the given option as a resource, or null. It
+     * is an error for the value to be a literal.
+     */
+    protected Resource getLocalResource( OPT option ) {
+        Object v = getLocalValue( option );
+        return (v == null) ? null : asNode( v ).asResource();
+    }
+
+    /** Return all of the local values of the given option, as strings */
+    protected List<String> getLocalValues( OPT option ) {
+        List<String> l = new ArrayList<String>();
+        if (values != null && values[option.ordinal()] != null) {
+            for (Object v: values[option.ordinal()]) {
+                l.add( (v instanceof Resource) ? ((Resource) v).getURI() : v.toString() );
+            }
+        }
+        return l;
+    }
+
+    /** Return the given local value as an RDF node, or null */
+    protected static RDFNode asNode( Object v ) {
+        if (v == null || v instanceof RDFNode) {
+            return (RDFNode) v;
+        }
+        else if (v instanceof Boolean) {
+            return ResourceFactory.createTypedLiteral( v );
+        }
+        else {
+            return ResourceFactory.createPlainLiteral( v.toString() );
+        }
+    }
+
+    /** Return the given local value as a string, or null */
+    protected static String asString( Object v ) {
+        return (v instanceof RDFNode) ? ((RDFNode) v).toString() : (v == null ? null : v.toString());
+    }
+
     /***********************************/
     /* Inner class definitions         */
     /***********************************/
 
     /**
-     * Default options for schemagen if no other options are specified
+     * Default options for schemagen if no other options are specified. The
+     * build directory is passed in by the mojo for each execution, so that
+     * concurrent builds of different projects do not share it.
      */
     public static class DefaultSchemagenOptions
         extends SchemagenOptions
     {
-        public DefaultSchemagenOptions() {
-            setOption( OPT.OUTPUT, SchemagenMojo.getProjectBuildDir() + SchemagenMojo.GENERATED_SOURCES );
+        public DefaultSchemagenOptions( String projectBuildDir ) {
+            setOption( OPT.OUTPUT, projectBuildDir + SchemagenMojo.GENERATED_SOURCES );
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,330 @@
+/*****************************************************************************
+ * File:    SchemagenWatchMojo.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+
+/**
+ * <p>Maven plugin goal that translates the inputs in the same way as the
+ * <code>translate</code> goal, and then keeps running, translating each input
+ * again as soon as it changes. Keeping maven, Jena and the parsed options
+ * loaded avoids the start-up cost of a full build for each edit to a
+ * vocabulary. Run it with <code>mvn jena:watch</code>, and stop it
+ * with Ctrl-C.
+ * </p>
+ * <p>The input files are polled for changes to their size or modification
+ * time. The include roots are only searched again when one of the directories
+ * that was searched has itself changed, so that an idle watch only checks the
+ * known inputs and their directories, however large the tree. Editors often
+ * save a file in several steps, so a burst of changes is only acted on once
+ * the inputs have been quiet for a short time. Inputs that are added are
+ * translated, and the outputs of inputs that are removed are deleted. A failed
+ * translation, or any other failure while handling a change, is reported and
+ * watching continues. Changes to the plugin configuration need the goal to be
+ * restarted.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ *
+ * Maven Mojo options
+ * @goal watch
+ * @requiresProject
+*/
+public class SchemagenWatchMojo
+    extends SchemagenMojo
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /**
+     * Directories modified this close, in milliseconds, to the time they were
+     * searched may have changed again without their modification time
+     * changing, on file systems that record times coarsely
+     */
+    protected static final long MODIFIED_TIME_RESOLUTION = 2000;
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /**
+     * Time in milliseconds between checks for changed inputs
+     * @parameter property="schemagen.pollInterval" default-value="200"
+     */
+    private long pollInterval = 200;
+
+    /**
+     * Time in milliseconds that the inputs must be unchanged before a burst
+     * of changes is acted on
+     * @parameter property="schemagen.quietPeriod" default-value="300"
+     */
+    private long quietPeriod = 300;
+
+    /** Set to stop watching */
+    private volatile boolean stopped = false;
+
+    /** Executor used to list the input directories for the life of the goal, or null */
+    private ExecutorService discoveryExecutor;
+
+    /** The directories searched for inputs by the last search, with their modification times */
+    private Map<String, Long> searchedDirs;
+
+    /** The time at which the last search for inputs started */
+    private long searchStarted;
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        stopped = false;
+        discoveryExecutor = newDiscoveryExecutor();
+        try {
+            watch();
+        }
+        finally {
+            if (discoveryExecutor != null) {
+                discoveryExecutor.shutdownNow();
+                discoveryExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Stop watching for changes. The goal returns once any translation in
+     * progress has finished.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public void setPollInterval( long pollInterval ) {
+        this.pollInterval = pollInterval;
+    }
+
+    public void setQuietPeriod( long quietPeriod ) {
+        this.quietPeriod = quietPeriod;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /**
+     * Translate the inputs, then translate them again as they change, until
+     * stopped
+     */
+    protected void watch() throws MojoExecutionException, MojoFailureException {
+        List<String> fileNames = prepare();
+        try {
+            // taken before building, so that changes made during the build are seen
+            Map<String, String> snapshot = snapshot( fileNames );
+            buildAndReport( fileNames, selectChanged( fileNames ) );
+            getLog().info( "Watching " + fileNames.size() + " inputs for changes" );
+
+            while (!stopped) {
+                if (!pause( pollInterval )) {
+                    break;
+                }
+                try {
+                    Map<String, String> current = poll( snapshot );
+                    if (current.equals( snapshot )) {
+                        continue;
+                    }
+
+                    // wait for a burst of changes to finish
+                    Map<String, String> settled = awaitQuiet( current );
+                    if (settled == null) {
+                        break;
+                    }
+
+                    List<String> changed = changedFiles( snapshot, settled );
+                    fileNames = matchFileNames();
+                    getLog().info( "Changed: " + changed );
+                    buildAndReport( fileNames, changed );
+                    snapshot = settled;
+                }
+                catch (RuntimeException e) {
+                    getLog().error( "Failed to check the inputs for changes, still watching: " + e.getMessage(), e );
+                }
+            }
+        }
+        finally {
+            finish();
+        }
+    }
+
+    /**
+     * Find the inputs using the executor kept for the life of the goal, rather
+     * than starting new threads for each poll
+     */
+    @Override
+    protected List<String> matchFileNames() {
+        long started = System.currentTimeMillis();
+        FileDiscovery discovery = newFileDiscovery();
+        List<String> fileNames = matchFileNames( discovery, discoveryExecutor );
+        searchedDirs = discovery.getSearchedDirectories();
+        searchStarted = started;
+        return fileNames;
+    }
+
+    /**
+     * The goal keeps running after each build, so inputs are never memory
+     * mapped, since a mapping keeps its file locked until it is collected
+     */
+    @Override
+    protected boolean isOneShotBuild() {
+        return false;
+    }
+
+    /**
+     * Return the current state of the inputs. The inputs are only searched for
+     * again if a directory that was searched has changed since; otherwise just
+     * the inputs in the last state are checked.
+     *
+     * @param last The last state of the inputs
+     * @return The current state of the inputs
+     */
+    protected Map<String, String> poll( Map<String, String> last ) {
+        if (isSearchChanged()) {
+            return snapshot( matchFileNames() );
+        }
+        return snapshot( new ArrayList<String>( last.keySet() ) );
+    }
+
+    /**
+     * Return true if the inputs need to be searched for again, because a
+     * directory searched by the last search has been modified since, or was
+     * modified too close to the search to be sure that it has not
+     */
+    protected boolean isSearchChanged() {
+        if (searchedDirs == null) {
+            return true;
+        }
+        for (Map.Entry<String, Long> e: searchedDirs.entrySet()) {
+            long modified = new File( getBaseDir(), e.getKey() ).lastModified();
+            if (modified != e.getValue() || searchStarted - modified < MODIFIED_TIME_RESOLUTION) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translate the given inputs, reporting rather than throwing any failure so
+     * that watching can continue once the input has been corrected. The state
+     * of the build is saved after each round of changes.
+     */
+    protected void buildAndReport( List<String> fileNames, List<String> changed ) {
+        long start = System.currentTimeMillis();
+        try {
+            build( fileNames, changed );
+            getLog().info( "Translated " + changed.size() + " inputs in " + (System.currentTimeMillis() - start) + "ms" );
+        }
+        catch (MojoExecutionException e) {
+            getLog().error( e.getMessage() );
+        }
+        catch (RuntimeException e) {
+            getLog().error( "Failed to translate the changed inputs: " + e.getMessage(), e );
+        }
+        saveBuildState();
+    }
+
+    /**
+     * Poll the inputs until they have not changed for the quiet period
+     * @param current The state of the inputs at the first change
+     * @return The state of the inputs once quiet, or null if stopped
+     */
+    protected Map<String, String> awaitQuiet( Map<String, String> current ) {
+        Map<String, String> last = current;
+        long quietSince = System.currentTimeMillis();
+        while (System.currentTimeMillis() - quietSince < quietPeriod) {
+            if (stopped || !pause( Math.min( pollInterval, quietPeriod ) )) {
+                return null;
+            }
+            Map<String, String> next = poll( last );
+            if (!next.equals( last )) {
+                last = next;
+                quietSince = System.currentTimeMillis();
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Return the size and modification time of each local input that still
+     * exists. Remote inputs are not watched.
+     */
+    protected Map<String, String> snapshot( List<String> fileNames ) {
+        Map<String, String> state = new HashMap<String, String>();
+        for (String fileName: fileNames) {
+            if (RemoteVocabularyCache.isRemote( fileName )) {
+                continue;
+            }
+            File f = new File( getBaseDir(), fileName );
+            if (f.isFile()) {
+                state.put( fileName, f.lastModified() + ":" + f.length() );
+            }
+        }
+        return state;
+    }
+
+    /** Return the inputs that are new or changed in the second snapshot, in sorted order */
+    protected static List<String> changedFiles( Map<String, String> before, Map<String, String> after ) {
+        List<String> changed = new ArrayList<String>();
+        for (Map.Entry<String, String> e: after.entrySet()) {
+            if (!e.getValue().equals( before.get( e.getKey() ) )) {
+                changed.add( e.getKey() );
+            }
+        }
+        Collections.sort( changed );
+        return changed;
+    }
+
+    /** Sleep for the given time, returning false if interrupted */
+    protected boolean pause( long millis ) {
+        try {
+            Thread.sleep( millis );
+            return true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
@@ -245,7 +245,7 @@ public class Source
      * @return True for the default options
      */
     public boolean isDefaultOptions() {
-        return getFileName().equals( SchemagenMojo.DEFAULT_OPTIONS_ELEM );
+        return SchemagenMojo.DEFAULT_OPTIONS_ELEM.equals( getFileName() );
     }
 
 
@@ -0,0 +1,243 @@
+/*****************************************************************************
+ * File:    SourceValidator.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.File;
+import java.util.*;
+
+import jena.schemagen.SchemagenOptions.OPT;
+
+
+/**
+ * <p>Checks the configured {@link Source} options before any input is
+ * translated, so that a mistake in any one of them is reported at once,
+ * rather than after the inputs before it have been translated. All of the
+ * sources are checked, and every problem found is reported together.
+ * </p>
+ * <p>The checks only look at the options each source sets itself, and at the
+ * names of the input files, so they are cheap even for a large number of
+ * sources. A source is in error if:</p>
+ * <ul>
+ * <li>it has no <code>input</code></li>
+ * <li>its <code>input</code> names a file, or is a pattern, that does not
+ * match any of the inputs selected by the <code>includes</code> and
+ * <code>excludes</code></li>
+ * <li>it selects more than one of <code>lang-daml</code>, <code>lang-owl</code>
+ * and <code>lang-rdfs</code></li>
+ * <li>its <code>output</code> cannot be written</li>
+ * <li>its <code>package-name</code> is not a legal Java package name</li>
+ * </ul>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class SourceValidator
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** The language options, of which at most one may be selected */
+    protected static final OPT[] LANG_OPTIONS = { OPT.LANG_DAML, OPT.LANG_OWL, OPT.LANG_RDFS };
+
+    /** Java reserved words, which cannot be used in a package name */
+    protected static final Set<String> RESERVED_WORDS = new HashSet<String>( Arrays.asList(
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char",
+        "class", "const", "continue", "default", "do", "double", "else", "enum",
+        "extends", "false", "final", "finally", "float", "for", "goto", "if",
+        "implements", "import", "instanceof", "int", "interface", "long", "native",
+        "new", "null", "package", "private", "protected", "public", "return", "short",
+        "static", "strictfp", "super", "switch", "synchronized", "this", "throw",
+        "throws", "transient", "true", "try", "void", "volatile", "while" ) );
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The names of the input files, with / as the separator */
+    private Set<String> fileNames = new HashSet<String>();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /**
+     * Construct a validator for sources applying to the given inputs
+     * @param fileNames The names of the inputs, relative to the project base
+     * directory, or URLs
+     */
+    public SourceValidator( List<String> fileNames ) {
+        for (String f: fileNames) {
+            this.fileNames.add( PathPatternTrie.normalize( f ) );
+        }
+    }
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Check each of the given sources
+     * @param sources The configured sources, possibly null
+     * @return A description of each problem found, in the order of the sources,
+     * or an empty list if there are none
+     */
+    public List<String> validate( List<Source> sources ) {
+        List<String> problems = new ArrayList<String>();
+        if (sources != null) {
+            int i = 0;
+            for (Source s: sources) {
+                validate( s, ++i, problems );
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Return a report of the given problems, one per line
+     * @param problems The problems found by {@link #validate(List)}
+     * @return The report
+     */
+    public static String report( List<String> problems ) {
+        StringBuilder buf = new StringBuilder();
+        buf.append( "Invalid schemagen configuration: " );
+        buf.append( problems.size() );
+        buf.append( (problems.size() == 1) ? " problem" : " problems" );
+        for (String p: problems) {
+            buf.append( "\n  " );
+            buf.append( p );
+        }
+        return buf.toString();
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Check one source, the i'th in the configuration */
+    protected void validate( Source s, int i, List<String> problems ) {
+        String input = s.getFileName();
+        String name = "<source> " + i + ((input == null) ? "" : " (" + input + ")");
+
+        if (input == null) {
+            problems.add( name + ": no <input> is given" );
+        }
+        else if (!s.isDefaultOptions() && !matchesInput( input )) {
+            problems.add( name + ": <input> does not match any file selected by <includes> and <excludes>" );
+        }
+
+        List<String> langs = new ArrayList<String>();
+        for (OPT lang: LANG_OPTIONS) {
+            if (isSelected( s, lang )) {
+                langs.add( lang.name().toLowerCase().replace( '_', '-' ) );
+            }
+        }
+        if (langs.size() > 1) {
+            problems.add( name + ": only one of " + langs + " may be given" );
+        }
+
+        String output = s.getStringValue( OPT.OUTPUT );
+        if (output != null && !isWritable( output )) {
+            problems.add( name + ": <output> " + output + " cannot be written" );
+        }
+
+        String pkg = s.getStringValue( OPT.PACKAGENAME );
+        if (pkg != null && !isPackageName( pkg )) {
+            problems.add( name + ": <package-name> " + pkg + " is not a legal Java package name" );
+        }
+    }
+
+    /** Return true if the input names, or is a pattern matching, at least one input file */
+    protected boolean matchesInput( String input ) {
+        String in = PathPatternTrie.normalize( input );
+        if (!PathPatternTrie.isPattern( in )) {
+            return fileNames.contains( in );
+        }
+
+        PathPatternTrie<String> trie = new PathPatternTrie<String>();
+        trie.add( in, in );
+        for (String f: fileNames) {
+            if (trie.match( f ) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Return true if the source itself selects the given option */
+    protected boolean isSelected( Source s, OPT option ) {
+        try {
+            return s.isTrue( option );
+        }
+        catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Return true if the output file or directory can be created or written. An
+     * output ending in <code>.java</code> is a file, otherwise it is a directory.
+     */
+    protected boolean isWritable( String output ) {
+        File f = new File( output ).getAbsoluteFile();
+        if (output.endsWith( ".java" )) {
+            if (f.isDirectory() || (f.exists() && !f.canWrite())) {
+                return false;
+            }
+            f = f.getParentFile();
+        }
+
+        // the nearest existing ancestor must be a writable directory
+        while (f != null && !f.exists()) {
+            f = f.getParentFile();
+        }
+        return f != null && f.isDirectory() && f.canWrite();
+    }
+
+    /** Return true if the given name is a legal Java package name */
+    protected static boolean isPackageName( String pkg ) {
+        if (pkg.length() == 0) {
+            return false;
+        }
+        for (String id: pkg.split( "\\.", -1 )) {
+            if (!isIdentifier( id )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isIdentifier( String id ) {
+        if (id.length() == 0 || RESERVED_WORDS.contains( id ) || !Character.isJavaIdentifierStart( id.charAt( 0 ) )) {
+            return false;
+        }
+        for (int i = 1;  i < id.length();  i++) {
+            if (!Character.isJavaIdentifierPart( id.charAt( i ) )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
@@ -0,0 +1,170 @@
+/*****************************************************************************
+ * File:    SyntaxResolver.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import com.hp.hpl.jena.util.FileUtils;
+
+
+/**
+ * <p>Decides the RDF syntax of an input before it is parsed, so that each
+ * input is parsed just once, with the right parser. The syntax is taken from
+ * the first of:</p>
+ * <ul>
+ * <li>the <code>encoding</code> option of the input, if given</li>
+ * <li>the extension of the input's name, ignoring any compression extension</li>
+ * <li>a look at the first {@value #SNIFF_SIZE} bytes of the content: XML is
+ * read as RDF/XML, and anything else as Turtle. N-Triples is not guessed
+ * from the content, since a Turtle document may start with lines that are
+ * also N-Triples; it is a subset of Turtle, so the Turtle parser reads it</li>
+ * </ul>
+ * <p>Only when none of these is possible, because there is no local copy of
+ * the content to look at, is the syntax left for Jena to decide.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class SyntaxResolver
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** Number of bytes of the content looked at */
+    public static final int SNIFF_SIZE = 1024;
+
+    /** The syntax of each recognised extension */
+    protected static final Map<String, String> EXTENSIONS = new HashMap<String, String>();
+    static {
+        EXTENSIONS.put( "ttl", FileUtils.langTurtle );
+        EXTENSIONS.put( "n3", FileUtils.langN3 );
+        EXTENSIONS.put( "nt", FileUtils.langNTriple );
+        EXTENSIONS.put( "rdf", FileUtils.langXML );
+        EXTENSIONS.put( "rdfs", FileUtils.langXML );
+        EXTENSIONS.put( "owl", FileUtils.langXML );
+        EXTENSIONS.put( "daml", FileUtils.langXML );
+        EXTENSIONS.put( "xml", FileUtils.langXML );
+    }
+
+    /** The start of an XML document: a declaration, comment or start tag, but not an IRI */
+    protected static final Pattern XML_START = Pattern.compile(
+        "<(?:[?!]|[A-Za-z_][-\\w.]*(?::[A-Za-z_][-\\w.]*)?[\\s/>]).*", Pattern.DOTALL );
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return the syntax of an input
+     * @param encoding The syntax given in the options of the input, or null
+     * @param name The name or URI of the input
+     * @param file A local copy of the content of the input, or null
+     * @return The Jena name of the syntax, or null if it cannot be decided
+     * without a local copy
+     * @throws IOException If the local copy cannot be read
+     */
+    public static String resolve( String encoding, String name, File file )
+        throws IOException
+    {
+        if (encoding != null) {
+            return encoding;
+        }
+        String syntax = fromExtension( name );
+        if (syntax == null && file != null) {
+            syntax = sniff( file );
+        }
+        return syntax;
+    }
+
+    /**
+     * Return the syntax implied by the extension of a name, ignoring any
+     * compression extension
+     * @param name A file name or URI
+     * @return The Jena name of the syntax, or null if the extension is not recognised
+     */
+    public static String fromExtension( String name ) {
+        String n = CompressedInput.stripCompression( name );
+        int hash = n.indexOf( '#' );
+        n = (hash < 0) ? n : n.substring( 0, hash );
+        int dot = n.lastIndexOf( '.' );
+        if (dot < 0 || n.indexOf( '/', dot ) >= 0) {
+            return null;
+        }
+        return EXTENSIONS.get( n.substring( dot + 1 ).toLowerCase() );
+    }
+
+    /**
+     * Return the syntax of the content of a file, which is decompressed
+     * first if its name has a compression extension
+     * @param file The file
+     * @return The Jena name of the syntax
+     * @throws IOException If the file cannot be read
+     */
+    public static String sniff( File file ) throws IOException {
+        InputStream in = new FileInputStream( file );
+        try {
+            in = CompressedInput.decompress( in, file.getName() );
+            byte[] buf = new byte[SNIFF_SIZE];
+            int n = 0;
+            int r;
+            while (n < buf.length && (r = in.read( buf, n, buf.length - n )) > 0) {
+                n += r;
+            }
+            return sniff( new String( buf, 0, n, "UTF-8" ) );
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Return the syntax of a document that starts with the given text
+     * @param head The start of the document
+     * @return The Jena name of the syntax
+     */
+    public static String sniff( String head ) {
+        String s = head.startsWith( "\ufeff" ) ? head.substring( 1 ) : head;
+        if (XML_START.matcher( s.trim() ).matches()) {
+            return FileUtils.langXML;
+        }
+        return FileUtils.langTurtle;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+}
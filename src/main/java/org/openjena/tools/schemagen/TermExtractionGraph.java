@@ -0,0 +1,269 @@
+/*****************************************************************************
+ * File:    TermExtractionGraph.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import java.util.*;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.mem.GraphMem;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.vocabulary.*;
+
+
+/**
+ * <p>A graph that keeps only the triples that schemagen uses when generating
+ * terms, and drops all others as they are added by the parser. Schemagen only
+ * looks at the <code>rdf:type</code> of the resources in the input, their
+ * comments, and the imports and version of the ontology, so an input such as
+ * a large SKOS concept scheme, most of whose triples are labels, notes and
+ * broader/narrower links, can be translated without holding all of it in
+ * memory. The domains and ranges of properties and the class expressions
+ * <code>owl:intersectionOf</code>, <code>owl:unionOf</code> and
+ * <code>owl:complementOf</code> are kept too, since Jena uses them to decide
+ * whether a resource with no <code>rdf:type</code> is a class, for example
+ * when finding the class of an individual.
+ * </p>
+ * <p>When no namespace is given, schemagen guesses it from the namespace used
+ * most often in the whole input. The graph counts the namespaces of every
+ * distinct triple as it is added, including those it drops, so that the same
+ * namespace can be {@linkplain #getGuessedNamespace() guessed} from the reduced
+ * graph. A triple that is added again is not counted again; the dropped
+ * triples are remembered just by a 64 bit fingerprint, which takes much less
+ * memory than the triple itself.
+ * The reduced graph is not enough to include the source of the input in the
+ * output, or to apply a reasoner to it, so it must not be used when either of
+ * those options is set.
+ * </p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class TermExtractionGraph
+    extends GraphMem
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    /** The predicates of the triples that are kept */
+    protected static final Set<Node> PREDICATES = new HashSet<Node>( Arrays.asList(
+        RDF.type.asNode(),
+        RDFS.comment.asNode(),
+        DAML_OIL.comment.asNode(),
+        OWL.versionInfo.asNode(),
+        OWL.imports.asNode(),
+        DAML_OIL.imports.asNode(),
+        RDFS.domain.asNode(),
+        RDFS.range.asNode(),
+        OWL.intersectionOf.asNode(),
+        OWL.unionOf.asNode(),
+        OWL.complementOf.asNode() ) );
+
+    /** Namespaces that are never guessed as the namespace of the input */
+    protected static final Set<String> IGNORED_NAMESPACES = new HashSet<String>( Arrays.asList(
+        OWL.getURI(), RDF.getURI(), RDFS.getURI(), XSD.getURI() ) );
+
+    /** Prefix under which the guessed namespace is kept in the prefixes of a reduced model */
+    public static final String GUESSED_NAMESPACE_PREFIX = "x-schemagen-guessed-ns";
+
+    /***********************************/
+    /* Static variables                */
+    /***********************************/
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    /** The number of uses of each namespace in all of the triples added */
+    private Map<String, Integer> nsCount = new HashMap<String, Integer>();
+
+    /** The number of distinct triples added, including those dropped */
+    private long added = 0;
+
+    /** Fingerprints of the distinct triples that have been dropped */
+    private FingerprintSet dropped = new FingerprintSet();
+
+    /***********************************/
+    /* Constructors                    */
+    /***********************************/
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    /**
+     * Return a model over a new term extraction graph, into which an input
+     * can be read
+     * @return A new model
+     */
+    public static Model createModel() {
+        return ModelFactory.createModelForGraph( new TermExtractionGraph() );
+    }
+
+    /**
+     * Return true if the triple is one that schemagen uses when generating terms
+     * @param t A triple
+     * @return True if the triple should be kept
+     */
+    public static boolean isNeeded( Triple t ) {
+        return PREDICATES.contains( t.getPredicate() );
+    }
+
+    @Override
+    public void performAdd( Triple t ) {
+        boolean isNew;
+        if (isNeeded( t )) {
+            isNew = !contains( t );
+            super.performAdd( t );
+        }
+        else {
+            isNew = dropped.add( fingerprint( t ) );
+        }
+
+        if (isNew) {
+            added++;
+            countNamespace( t.getSubject() );
+            countNamespace( t.getPredicate() );
+            countNamespace( t.getObject() );
+        }
+    }
+
+    /**
+     * Return the namespace that schemagen would guess for the whole input:
+     * the namespace used most often, other than the RDF, RDFS, OWL and XSD
+     * namespaces
+     * @return The namespace, or null if no other namespace is used
+     */
+    public String getGuessedNamespace() {
+        String ns = null;
+        int max = 0;
+        for (Map.Entry<String, Integer> e: nsCount.entrySet()) {
+            if (!IGNORED_NAMESPACES.contains( e.getKey() ) && e.getValue() > max) {
+                max = e.getValue();
+                ns = e.getKey();
+            }
+        }
+        return ns;
+    }
+
+    /**
+     * Record the guessed namespace in the prefixes of the graph, so that it
+     * is kept when the graph is cached or stored
+     */
+    public void recordGuessedNamespace() {
+        String ns = getGuessedNamespace();
+        if (ns != null) {
+            getPrefixMapping().setNsPrefix( GUESSED_NAMESPACE_PREFIX, ns );
+        }
+    }
+
+    /** Return the number of distinct triples added, including those that were dropped */
+    public long getAdded() {
+        return added;
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return a 64 bit fingerprint of the triple */
+    protected static long fingerprint( Triple t ) {
+        long h = mix( t.getSubject().hashCode() );
+        h = mix( h * 31 + t.getPredicate().hashCode() );
+        return mix( h * 31 + t.getObject().hashCode() );
+    }
+
+    /** Spread the bits of the value over the whole 64 bits */
+    protected static long mix( long h ) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /** Record a use of the namespace of the node, if it is a URI */
+    protected void countNamespace( Node n ) {
+        if (n.isURI()) {
+            String ns = n.getNameSpace();
+            Integer count = nsCount.get( ns );
+            nsCount.put( ns, (count == null) ? 1 : count + 1 );
+        }
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /**
+     * A set of 64 bit fingerprints, held in an open addressed table of
+     * primitive longs rather than as boxed values
+     */
+    protected static class FingerprintSet
+    {
+        /** Stands for a fingerprint of zero, since zero marks an empty slot */
+        private boolean hasZero = false;
+        private long[] table = new long[1024];
+        private int size = 0;
+
+        /**
+         * Add the fingerprint to the set
+         * @return True if it was not already in the set
+         */
+        public boolean add( long f ) {
+            if (f == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            if ((size + 1) * 2 > table.length) {
+                resize();
+            }
+            if (!insert( table, f )) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+
+        /** Insert into the table, returning false if already present */
+        protected static boolean insert( long[] table, long f ) {
+            int mask = table.length - 1;
+            int i = (int) f & mask;
+            while (table[i] != 0) {
+                if (table[i] == f) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            table[i] = f;
+            return true;
+        }
+
+        protected void resize() {
+            long[] bigger = new long[table.length * 2];
+            for (long f: table) {
+                if (f != 0) {
+                    insert( bigger, f );
+                }
+            }
+            table = bigger;
+        }
+    }
+
+}
@@ -0,0 +1,203 @@
+/*****************************************************************************
+ * File:    BuildStateTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import jena.schemagen.SchemagenOptions.OPT;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link BuildState}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class BuildStateTest
+{
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File dir;
+    private File input;
+    private File output;
+    private File stateFile;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile( "schemagen", "test" );
+        dir.delete();
+        dir.mkdirs();
+        input = new File( dir, "test.ttl" );
+        output = new File( dir, "Test.java" );
+        stateFile = new File( dir, BuildState.STATE_FILE_NAME );
+        write( input, "<http://example.org/a> a <http://example.org/C> ." );
+    }
+
+    @After
+    public void tearDown() {
+        for (File f: dir.listFiles()) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testStaleWithoutRecord() throws IOException {
+        write( output, "class Test {}" );
+        BuildState bs = new BuildState( stateFile );
+        bs.load();
+        assertTrue( bs.isStale( "test.ttl", input, "00" ) );
+    }
+
+    @Test
+    public void testUpToDateAfterSave() throws IOException {
+        write( output, "class Test {}" );
+        BuildState bs = new BuildState( stateFile );
+        bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( output ) );
+        bs.save();
+
+        BuildState bs1 = new BuildState( stateFile );
+        bs1.load();
+        assertFalse( bs1.isStale( "test.ttl", input, "00" ) );
+        assertTrue( bs1.isStale( "test.ttl", input, "01" ) );
+    }
+
+    @Test
+    public void testKnownDigest() throws IOException {
+        write( output, "class Test {}" );
+        BuildState bs = new BuildState( stateFile );
+        String digest = BuildState.digest( input );
+        bs.recordGeneration( "test.ttl", digest, "00", Collections.singletonList( output ) );
+        assertFalse( bs.isStale( "test.ttl", input, "00" ) );
+        assertFalse( bs.isStale( "test.ttl", digest, "00" ) );
+        assertTrue( bs.isStale( "test.ttl", "01", "00" ) );
+    }
+
+    @Test
+    public void testStaleWithoutOutput() throws IOException {
+        write( output, "class Test {}" );
+        BuildState bs = new BuildState( stateFile );
+        bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( output ) );
+        output.delete();
+        assertTrue( bs.isStale( "test.ttl", input, "00" ) );
+    }
+
+    @Test
+    public void testContentChanged() throws IOException {
+        write( output, "class Test {}" );
+        BuildState bs = new BuildState( stateFile );
+        bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( output ) );
+
+        // touching the input without changing it does not make it stale
+        input.setLastModified( output.lastModified() + 10000 );
+        assertFalse( bs.isStale( "test.ttl", input, "00" ) );
+
+        write( input, "<http://example.org/b> a <http://example.org/C> ." );
+        assertTrue( bs.isStale( "test.ttl", input, "00" ) );
+    }
+
+    @Test
+    public void testRemoveObsolete() throws IOException {
+        File other = new File( dir, "other.ttl" );
+        File otherOutput = new File( dir, "Other.java" );
+        write( other, "" );
+        BuildState bs = new BuildState( stateFile );
+        bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( output ) );
+        bs.recordGeneration( "other.ttl", other, "00", Collections.singletonList( otherOutput ) );
+        bs.save();
+
+        BuildState bs1 = new BuildState( stateFile );
+        bs1.load();
+        List<File> obsolete = bs1.removeObsolete( Collections.singletonList( "test.ttl" ) );
+        assertEquals( 1, obsolete.size() );
+        assertEquals( otherOutput.getAbsoluteFile(), obsolete.get( 0 ) );
+        assertTrue( bs1.removeObsolete( Collections.singletonList( "test.ttl" ) ).isEmpty() );
+    }
+
+    @Test
+    public void testReplacedOutputs() throws IOException {
+        File renamed = new File( dir, "Renamed.java" );
+        File shared = new File( dir, "Shared.java" );
+        BuildState bs = new BuildState( stateFile );
+        assertTrue( bs.recordGeneration( "test.ttl", input, "00", Arrays.asList( output, shared ) ).isEmpty() );
+        bs.recordGeneration( "other.ttl", input, "00", Collections.singletonList( shared ) );
+
+        // the previous output is returned, but not one that another input still generates
+        List<File> replaced = bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( renamed ) );
+        assertEquals( Collections.singletonList( output.getAbsoluteFile() ), replaced );
+        assertTrue( bs.recordGeneration( "test.ttl", input, "00", Collections.singletonList( renamed ) ).isEmpty() );
+    }
+
+    @Test
+    public void testStateFileName() {
+        assertEquals( BuildState.STATE_FILE_NAME, BuildState.stateFileName( null ) );
+        assertEquals( "schemagen-state-default.bin", BuildState.stateFileName( "default" ) );
+        assertEquals( "schemagen-state-a_b.bin", BuildState.stateFileName( "a/b" ) );
+    }
+
+    @Test
+    public void testCorruptStateIgnored() throws IOException {
+        write( stateFile, "not a manifest at all" );
+        BuildState bs = new BuildState( stateFile );
+        bs.load();
+        assertTrue( bs.isStale( "test.ttl", input, "00" ) );
+    }
+
+    @Test
+    public void testOptionsDigest() {
+        SchemagenOptions so0 = new SchemagenOptions();
+        SchemagenOptions so1 = new SchemagenOptions();
+        so0.setParent( so1 );
+        String d0 = BuildState.optionsDigest( so0 );
+
+        so1.setOption( OPT.PACKAGENAME, "org.example" );
+        String d1 = BuildState.optionsDigest( so0 );
+        assertFalse( d0.equals( d1 ) );
+
+        so0.setOption( OPT.INPUT, "test.ttl" );
+        assertEquals( d1, BuildState.optionsDigest( so0 ) );
+
+        // other settings are part of the digest
+        assertFalse( d1.equals( BuildState.optionsDigest( so0, "extractTerms=true" ) ) );
+        assertFalse( BuildState.optionsDigest( so0, "extractTerms=false" ).equals( BuildState.optionsDigest( so0, "extractTerms=true" ) ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected void write( File f, String content ) throws IOException {
+        Writer w = new OutputStreamWriter( new FileOutputStream( f ), "UTF-8" );
+        try {
+            w.write( content );
+        }
+        finally {
+            w.close();
+        }
+    }
+}
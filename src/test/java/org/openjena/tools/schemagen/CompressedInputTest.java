@@ -0,0 +1,141 @@
+/*****************************************************************************
+ * File:    CompressedInputTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link CompressedInput}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class CompressedInputTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final String VOCAB = "@prefix ex: <http://example.org/ns#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "ex:First a owl:Class .\n";
+
+    protected static final String RDFXML = "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n"
+            + "         xmlns:owl=\"http://www.w3.org/2002/07/owl#\">\n"
+            + "  <owl:Class rdf:about=\"http://example.org/other#Second\"/>\n"
+            + "</rdf:RDF>\n";
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File baseDir;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = File.createTempFile( "schemagen", "compressed" );
+        baseDir.delete();
+        new File( baseDir, "src/main/vocabs" ).mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory( baseDir );
+    }
+
+    @Test
+    public void testNames() {
+        assertEquals( CompressedInput.GZIP, CompressedInput.getCompression( "vocab.ttl.gz" ) );
+        assertEquals( CompressedInput.BZIP2, CompressedInput.getCompression( "file:/a/vocab.RDF.BZ2" ) );
+        assertNull( CompressedInput.getCompression( "vocab.ttl" ) );
+        assertFalse( CompressedInput.isCompressed( "vocab.gzip" ) );
+        assertEquals( "file:/a/vocab.nt", CompressedInput.stripCompression( "file:/a/vocab.nt.gz" ) );
+        assertEquals( "vocab.ttl", CompressedInput.stripCompression( "vocab.ttl" ) );
+    }
+
+    @Test
+    public void testDecompress() throws IOException {
+        File gz = write( "a.ttl.gz", VOCAB );
+        File bz2 = write( "a.ttl.bz2", VOCAB );
+        assertEquals( VOCAB, read( gz ) );
+        assertEquals( VOCAB, read( bz2 ) );
+    }
+
+    @Test
+    public void testTranslate() throws Exception {
+        write( "src/main/vocabs/first.ttl.gz", VOCAB );
+        write( "src/main/vocabs/second.rdf.bz2", RDFXML );
+
+        SchemagenMojo mojo = new SchemagenMojo();
+        mojo.setBaseDir( baseDir );
+        mojo.setProjectBuildDir( new File( baseDir, "target" ).getPath() );
+        mojo.setIncludes( new String[] {"src/main/vocabs/*.gz", "src/main/vocabs/*.bz2"} );
+        mojo.execute();
+
+        // the class is named, and the syntax found, without the compression extension
+        File first = new File( baseDir, "target/generated-sources/First.java" );
+        File second = new File( baseDir, "target/generated-sources/Second.java" );
+        assertTrue( FileUtils.fileRead( first, "UTF-8" ).contains( "http://example.org/ns#First" ) );
+        assertTrue( FileUtils.fileRead( second, "UTF-8" ).contains( "http://example.org/other#Second" ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Write the content to the named file, compressed according to its name */
+    protected File write( String name, String content ) throws IOException {
+        File f = new File( baseDir, name );
+        OutputStream out = new FileOutputStream( f );
+        if (name.endsWith( CompressedInput.GZIP )) {
+            out = new GZIPOutputStream( out );
+        }
+        else if (name.endsWith( CompressedInput.BZIP2 )) {
+            out = new BZip2CompressorOutputStream( out );
+        }
+        try {
+            out.write( content.getBytes( "UTF-8" ) );
+        }
+        finally {
+            out.close();
+        }
+        return f;
+    }
+
+    protected String read( File f ) throws IOException {
+        InputStream in = CompressedInput.decompress( new FileInputStream( f ), f.getName() );
+        try {
+            return IOUtil.toString( in, "UTF-8" );
+        }
+        finally {
+            in.close();
+        }
+    }
+}
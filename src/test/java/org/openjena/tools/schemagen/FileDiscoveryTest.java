@@ -0,0 +1,182 @@
+/*****************************************************************************
+ * File:    FileDiscoveryTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link FileDiscovery}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class FileDiscoveryTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final String[] FILES = {
+        "src/main/vocabs/a.ttl",
+        "src/main/vocabs/b.rdf",
+        "src/main/vocabs/internal/c.ttl",
+        "src/main/vocabs/internal/deep/d.ttl",
+        "src/main/vocabs-old/e.ttl",
+        "src/test/vocabs/f.ttl",
+        "target/classes/g.ttl",
+        "h.ttl"
+    };
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File baseDir;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = File.createTempFile( "schemagen", "discovery" );
+        baseDir.delete();
+        for (String f: FILES) {
+            File file = new File( baseDir, f );
+            file.getParentFile().mkdirs();
+            file.createNewFile();
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory( baseDir );
+    }
+
+    @Test
+    public void testRoots() {
+        assertEquals( Arrays.asList( path( "src/main/vocabs" ) ),
+                discovery( new String[] {"src/main/vocabs/*.ttl", "src/main/vocabs/internal/**/*.ttl"} ).getRoots() );
+        assertEquals( Arrays.asList( path( "src/main/vocabs" ), path( "src/main/vocabs-old" ) ),
+                discovery( new String[] {"src/main/vocabs-old/e.ttl", "src/main/vocabs/", "src/main/vocabs/internal/c.ttl"} ).getRoots() );
+        assertEquals( Arrays.asList( path( "src" ) ), discovery( new String[] {"src/*/vocabs/*.ttl", "src/missing/*.ttl"} ).getRoots() );
+        assertEquals( Arrays.asList( "" ), discovery( new String[] {"**/*.ttl", "http://example.org/v.ttl"} ).getRoots() );
+        assertTrue( discovery( new String[0] ).getRoots().isEmpty() );
+    }
+
+    @Test
+    public void testSameAsDirectoryScanner() {
+        String[][] includes = {
+            {"src/main/vocabs/*.ttl"},
+            {"src/main/vocabs/"},
+            {"src/**/*.ttl"},
+            {"**/*.ttl"},
+            {"*.ttl", "src/main/vocabs/internal/c.ttl"},
+            {"src/main/vocabs*/**"},
+            {"src/main/vocabs/**/?.ttl", "src/test/**"}
+        };
+        String[][] excludes = {
+            {},
+            {"**/internal/**"},
+            {"src/main/vocabs/internal/"},
+            {"target/**", "**/b.rdf"},
+            {"**/deep/*.ttl"}
+        };
+        for (String[] in: includes) {
+            for (String[] ex: excludes) {
+                DirectoryScanner ds = new DirectoryScanner();
+                ds.setBasedir( baseDir );
+                ds.setIncludes( in );
+                ds.setExcludes( ex );
+                ds.scan();
+                List<String> expected = new ArrayList<String>( Arrays.asList( ds.getIncludedFiles() ) );
+                Collections.sort( expected );
+
+                String msg = Arrays.asList( in ) + " - " + Arrays.asList( ex );
+                assertEquals( msg, expected, new FileDiscovery( baseDir, in, ex ).find( 1 ) );
+                assertEquals( msg, expected, new FileDiscovery( baseDir, in, ex ).find( 4 ) );
+            }
+        }
+    }
+
+    @Test
+    public void testSharedExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            String[] in = {"**/*.ttl"};
+            FileDiscovery fd = new FileDiscovery( baseDir, in, new String[0] );
+            List<String> expected = fd.find( 1 );
+            assertEquals( expected, fd.find( executor ) );
+
+            // the executor is left running for the next search
+            assertFalse( executor.isShutdown() );
+            assertEquals( expected, fd.find( executor ) );
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPruneExcluded() {
+        FileDiscovery fd = new FileDiscovery( baseDir, new String[] {"**/*.ttl"}, new String[] {"target/**", "**/internal/"} );
+        assertTrue( fd.isPruned( "target" ) );
+        assertTrue( fd.isPruned( path( "src/main/vocabs/internal" ) ) );
+        assertFalse( fd.isPruned( "src" ) );
+
+        // directories that cannot hold an included file are not entered either
+        FileDiscovery.Listing l = discovery( new String[] {"src/main/*.ttl"} ).list( "src" );
+        assertEquals( Arrays.asList( path( "src/main" ) ), l.dirs );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    @Test
+    public void testSearchedDirectories() {
+        FileDiscovery fd = discovery( new String[] {"src/main/vocabs/**/*.ttl", "src/missing/*.ttl"} );
+        assertTrue( fd.getSearchedDirectories().isEmpty() );
+        fd.find( 1 );
+
+        Map<String, Long> searched = fd.getSearchedDirectories();
+        assertEquals( new HashSet<String>( Arrays.asList( path( "src/main/vocabs" ), path( "src/main/vocabs/internal" ),
+                path( "src/main/vocabs/internal/deep" ), path( "src/missing" ) ) ), searched.keySet() );
+        File vocabs = new File( baseDir, "src/main/vocabs" );
+        assertEquals( Long.valueOf( vocabs.lastModified() ), searched.get( path( "src/main/vocabs" ) ) );
+        assertEquals( Long.valueOf( 0 ), searched.get( path( "src/missing" ) ) );
+    }
+
+    protected FileDiscovery discovery( String[] includes ) {
+        return new FileDiscovery( baseDir, includes, new String[0] );
+    }
+
+    protected String path( String p ) {
+        return p.replace( '/', File.separatorChar );
+    }
+}
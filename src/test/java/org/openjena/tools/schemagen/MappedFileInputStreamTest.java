@@ -0,0 +1,119 @@
+/*****************************************************************************
+ * File:    MappedFileInputStreamTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link MappedFileInputStream}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class MappedFileInputStreamTest
+{
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File f;
+    private byte[] content;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws IOException {
+        f = File.createTempFile( "schemagen", ".nt" );
+        content = new byte[1000];
+        for (int i = 0;  i < content.length;  i++) {
+            content[i] = (byte) i;
+        }
+        OutputStream out = new FileOutputStream( f );
+        try {
+            out.write( content );
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        f.delete();
+    }
+
+    @Test
+    public void testReadAcrossWindows() throws IOException {
+        // a window size that does not divide the file size
+        InputStream in = new MappedFileInputStream( f, 64 );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[100];
+        int n;
+        while ((n = in.read( buf, 0, buf.length )) >= 0) {
+            assertTrue( n > 0 && n <= 64 );
+            out.write( buf, 0, n );
+        }
+        in.close();
+        assertArrayEquals( content, out.toByteArray() );
+    }
+
+    @Test
+    public void testSingleBytesAndSkip() throws IOException {
+        InputStream in = new MappedFileInputStream( f, 64 );
+        assertEquals( 0, in.read() );
+        assertEquals( 1, in.read() );
+        assertEquals( 998, in.available() );
+        assertEquals( 198, in.skip( 198 ) );
+        assertEquals( 200, in.read() );
+        assertEquals( 799, in.skip( 10000 ) );
+        assertEquals( -1, in.read() );
+        assertEquals( -1, in.read( new byte[10], 0, 10 ) );
+        assertEquals( 0, in.available() );
+        in.close();
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        File empty = File.createTempFile( "schemagen", ".nt" );
+        InputStream in = new MappedFileInputStream( empty );
+        assertEquals( -1, in.read() );
+        in.close();
+        empty.delete();
+    }
+
+    @Test
+    public void testClose() throws IOException {
+        InputStream in = new MappedFileInputStream( f, 64 );
+        assertEquals( 0, in.read() );
+        in.close();
+        in.close();
+        try {
+            in.read();
+            fail( "Expected the closed stream to refuse to read" );
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+}
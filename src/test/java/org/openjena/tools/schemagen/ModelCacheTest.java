@@ -0,0 +1,149 @@
+/*****************************************************************************
+ * File:    ModelCacheTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.vocabulary.OWL;
+import com.hp.hpl.jena.vocabulary.RDF;
+
+/**
+ * <p>Unit tests for {@link ModelCache}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ModelCacheTest
+{
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Test
+    public void testGetPut() {
+        ModelCache cache = new ModelCache( 10 );
+        Model m = model( 3 );
+        assertNull( cache.get( "a" ) );
+        cache.put( "a", m );
+        assertSame( m, cache.get( "a" ) );
+        assertEquals( 1, cache.getHits() );
+        assertEquals( 1, cache.getMisses() );
+        assertEquals( 3, cache.getTriples() );
+
+        // replacing a model does not count its triples twice
+        cache.put( "a", model( 4 ) );
+        assertEquals( 1, cache.size() );
+        assertEquals( 4, cache.getTriples() );
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        ModelCache cache = new ModelCache( 10 );
+        cache.put( "a", model( 4 ) );
+        cache.put( "b", model( 4 ) );
+        cache.get( "a" );
+        cache.put( "c", model( 4 ) );
+        assertNotNull( cache.get( "a" ) );
+        assertNull( cache.get( "b" ) );
+        assertNotNull( cache.get( "c" ) );
+        assertEquals( 8, cache.getTriples() );
+
+        cache.setMaxTriples( 5 );
+        assertEquals( 1, cache.size() );
+        assertNotNull( cache.get( "c" ) );
+
+        cache.setMaxTriples( 0 );
+        assertEquals( 0, cache.size() );
+        assertEquals( 0, cache.getTriples() );
+    }
+
+    @Test
+    public void testRequestMaxTriples() {
+        ModelCache cache = new ModelCache( 0 );
+        cache.requestMaxTriples( 10 );
+        cache.requestMaxTriples( 5 );
+        assertEquals( 10, cache.getMaxTriples() );
+        cache.put( "a", model( 8 ) );
+        assertEquals( 1, cache.size() );
+
+        // a request for no cache does not disable it for others
+        cache.requestMaxTriples( 0 );
+        assertEquals( 10, cache.getMaxTriples() );
+        assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void testTooLarge() {
+        ModelCache cache = new ModelCache( 10 );
+        cache.put( "a", model( 11 ) );
+        assertEquals( 0, cache.size() );
+        assertNull( cache.get( "a" ) );
+    }
+
+    @Test
+    public void testKey() {
+        assertFalse( ModelCache.key( "file:a.ttl", null, "01" ).equals( ModelCache.key( "file:a.ttl", null, "02" ) ) );
+        assertFalse( ModelCache.key( "file:a.ttl", null, "01" ).equals( ModelCache.key( "file:a.ttl", "N3", "01" ) ) );
+        assertFalse( ModelCache.key( "file:a.ttl", null, "01" ).equals( ModelCache.key( "file:b.ttl", null, "01" ) ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return a model with the given number of triples */
+    @Test
+    public void testSessionScoped() throws Exception {
+        Object session0 = new Object();
+        Object session1 = new Object();
+        ModelCache cache0 = ModelCache.getShared( session0 );
+        assertSame( cache0, ModelCache.getShared( session0 ) );
+        cache0.requestMaxTriples( 100 );
+        cache0.put( "a", model( 8 ) );
+
+        // a new session has its own cache, whose limit follows its own requests
+        ModelCache cache1 = ModelCache.getShared( session1 );
+        assertNotSame( cache0, cache1 );
+        assertEquals( 0, cache1.getMaxTriples() );
+        assertNull( cache1.get( "a" ) );
+
+        // the cache is released once its session is no longer used
+        WeakReference<ModelCache> released = new WeakReference<ModelCache>( cache0 );
+        cache0 = null;
+        session0 = null;
+        for (int i = 0;  i < 100 && released.get() != null;  i++) {
+            System.gc();
+            Thread.sleep( 10 );
+            // access the caches, so that those of released sessions are dropped
+            ModelCache.getShared( session1 );
+        }
+        assertNull( released.get() );
+    }
+
+    protected Model model( int triples ) {
+        Model m = ModelFactory.createDefaultModel();
+        for (int i = 0;  i < triples;  i++) {
+            m.add( m.createResource( "http://example.org/c" + i ), RDF.type, OWL.Class );
+        }
+        return m;
+    }
+}
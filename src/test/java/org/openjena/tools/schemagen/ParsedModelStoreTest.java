@@ -0,0 +1,188 @@
+/*****************************************************************************
+ * File:    ParsedModelStoreTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.datatypes.xsd.XSDDatatype;
+import com.hp.hpl.jena.rdf.model.*;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+/**
+ * <p>Unit tests for {@link ParsedModelStore}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ParsedModelStoreTest
+{
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File dir;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile( "schemagen", "store" );
+        dir.delete();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory( dir );
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Model m = ModelFactory.createDefaultModel();
+        m.setNsPrefix( "ex", "http://example.org/ns#" );
+        Resource r = m.createResource( "http://example.org/ns#r" );
+        Resource b = m.createResource();
+        r.addProperty( RDFS.seeAlso, b );
+        b.addProperty( RDFS.label, "plain" );
+        b.addProperty( RDFS.label, "anglais", "fr" );
+        b.addProperty( RDFS.comment, m.createTypedLiteral( "42", XSDDatatype.XSDinteger ) );
+        r.addProperty( RDFS.comment, "\u00e9t\u00e9 " + repeat( "long ", 20000 ) );
+
+        ParsedModelStore store = new ParsedModelStore( dir );
+        store.save( "a.ttl", "k", m );
+        Model loaded = store.load( "a.ttl", "k" );
+        assertTrue( loaded.isIsomorphicWith( m ) );
+        assertEquals( "http://example.org/ns#", loaded.getNsPrefixURI( "ex" ) );
+        assertNull( store.load( "b.ttl", "k" ) );
+    }
+
+    @Test
+    public void testChangedContent() throws IOException {
+        ParsedModelStore store = new ParsedModelStore( dir );
+        Model m = ModelFactory.createDefaultModel();
+        m.createResource( "http://example.org/ns#r" ).addProperty( RDFS.label, "r" );
+        store.save( "a.ttl", "k1", m );
+        store.save( "b.ttl", "k1", m );
+
+        // the entry for the old content is removed rather than kept beside the new one
+        assertNull( store.load( "a.ttl", "k2" ) );
+        assertFalse( store.getFile( "a.ttl" ).exists() );
+        store.save( "a.ttl", "k2", m );
+        assertTrue( store.load( "a.ttl", "k2" ).isIsomorphicWith( m ) );
+        assertEquals( 2, dir.list().length );
+    }
+
+    @Test
+    public void testParsedInput() throws IOException {
+        Model m = ModelFactory.createDefaultModel();
+        m.read( new File( "demo/src/main/vocabs/foaf.rdf" ).toURI().toString() );
+        ParsedModelStore store = new ParsedModelStore( dir );
+        store.save( "foaf", "k", m );
+        assertTrue( store.load( "foaf", "k" ).isIsomorphicWith( m ) );
+        assertTrue( store.getFile( "foaf" ).length() < new File( "demo/src/main/vocabs/foaf.rdf" ).length() );
+    }
+
+    @Test
+    public void testUnusable() throws IOException {
+        ParsedModelStore store = new ParsedModelStore( dir );
+        Model m = ModelFactory.createDefaultModel();
+        m.createResource( "http://example.org/ns#r" ).addProperty( RDFS.label, "r" );
+        store.save( "a.ttl", "k", m );
+
+        // truncated
+        File f = store.getFile( "a.ttl" );
+        byte[] content = FileUtils.fileRead( f, "ISO-8859-1" ).getBytes( "ISO-8859-1" );
+        OutputStream out = new FileOutputStream( f );
+        out.write( content, 0, content.length - 3 );
+        out.close();
+        assertNull( store.load( "a.ttl", "k" ) );
+        assertFalse( f.exists() );
+
+        // not a stored model
+        FileUtils.fileWrite( f.getPath(), "rubbish" );
+        assertNull( store.load( "a.ttl", "k" ) );
+
+        // a corrupt term
+        store.save( "a.ttl", "k", m );
+        content = FileUtils.fileRead( f, "ISO-8859-1" ).getBytes( "ISO-8859-1" );
+        content[content.length - 1] = (byte) 0x7f;
+        out = new FileOutputStream( f );
+        out.write( content );
+        out.close();
+        assertNull( store.load( "a.ttl", "k" ) );
+        assertFalse( f.exists() );
+    }
+
+    @Test
+    public void testCorruptLengths() throws IOException {
+        ParsedModelStore store = new ParsedModelStore( dir );
+        File f = store.getFile( "a.ttl" );
+        dir.mkdirs();
+
+        // a huge number of terms, or a huge string, is not allocated
+        int[][] headers = { {0, Integer.MAX_VALUE}, {1, Integer.MAX_VALUE}, {0, 1, ParsedModelStore.URI, 1 << 30} };
+        for (int[] header: headers) {
+            DataOutputStream out = new DataOutputStream( new FileOutputStream( f ) );
+            out.writeInt( ParsedModelStore.MAGIC );
+            out.writeInt( ParsedModelStore.FORMAT_VERSION );
+            ParsedModelStore.writeString( out, BuildState.getToolVersion() );
+            ParsedModelStore.writeString( out, "k" );
+            for (int v: header) {
+                ParsedModelStore.writeVarInt( out, v );
+            }
+            out.close();
+            assertNull( store.load( "a.ttl", "k" ) );
+            assertFalse( f.exists() );
+        }
+    }
+
+    @Test
+    public void testVarInt() throws IOException {
+        int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream( bytes );
+        for (int v: values) {
+            ParsedModelStore.writeVarInt( out, v );
+        }
+        out.close();
+        assertEquals( 1 + 1 + 1 + 2 + 2 + 3 + 5, bytes.size() );
+
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+        for (int v: values) {
+            assertEquals( v, ParsedModelStore.readVarInt( in ) );
+        }
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected String repeat( String s, int n ) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0;  i < n;  i++) {
+            buf.append( s );
+        }
+        return buf.toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*****************************************************************************
+ * File:    PathPatternTrieTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link PathPatternTrie}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class PathPatternTrieTest
+{
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Test
+    public void testIsPattern() {
+        assertTrue( PathPatternTrie.isPattern( "src/**/*.ttl" ) );
+        assertTrue( PathPatternTrie.isPattern( "src/test?.ttl" ) );
+        assertTrue( PathPatternTrie.isPattern( "src/main/vocabs/" ) );
+        assertFalse( PathPatternTrie.isPattern( "src/main/vocabs/test.ttl" ) );
+    }
+
+    @Test
+    public void testWildcards() {
+        PathPatternTrie<String> t = new PathPatternTrie<String>();
+        t.add( "src/main/vocabs/*.ttl", "a" );
+        assertEquals( "a", t.match( "src/main/vocabs/test.ttl" ) );
+        assertNull( t.match( "src/main/vocabs/test.rdf" ) );
+        assertNull( t.match( "src/main/vocabs/sub/test.ttl" ) );
+
+        t.add( "src/main/vocabs/test?.rdf", "b" );
+        assertEquals( "b", t.match( "src/main/vocabs/test1.rdf" ) );
+        assertNull( t.match( "src/main/vocabs/test12.rdf" ) );
+    }
+
+    @Test
+    public void testAnyDepth() {
+        PathPatternTrie<String> t = new PathPatternTrie<String>();
+        t.add( "src/**/internal/**/*.ttl", "a" );
+        assertEquals( "a", t.match( "src/internal/test.ttl" ) );
+        assertEquals( "a", t.match( "src/main/vocabs/internal/x/y/test.ttl" ) );
+        assertNull( t.match( "src/main/vocabs/external/test.ttl" ) );
+    }
+
+    @Test
+    public void testDirectory() {
+        PathPatternTrie<String> t = new PathPatternTrie<String>();
+        t.add( "src/main/vocabs/internal/", "a" );
+        assertEquals( "a", t.match( "src/main/vocabs/internal/test.ttl" ) );
+        assertEquals( "a", t.match( "./src/main/vocabs/internal/x/test.rdf" ) );
+        assertEquals( "a", t.match( "src\\main\\vocabs\\internal\\test.ttl" ) );
+        assertNull( t.match( "src/main/vocabs/test.ttl" ) );
+    }
+
+    @Test
+    public void testMostSpecific() {
+        PathPatternTrie<String> t = new PathPatternTrie<String>();
+        t.add( "**/*", "any" );
+        t.add( "src/**/*.ttl", "ttl" );
+        t.add( "src/main/vocabs/**", "vocabs" );
+        t.add( "src/main/vocabs/internal/*.ttl", "internal" );
+        t.add( "src/main/vocabs/internal/*", "internal-any" );
+
+        assertEquals( Arrays.asList( "internal", "internal-any", "vocabs", "ttl", "any" ),
+                      t.matchAll( "src/main/vocabs/internal/test.ttl" ) );
+        assertEquals( "vocabs", t.match( "src/main/vocabs/test.ttl" ) );
+        assertEquals( "ttl", t.match( "src/other/test.ttl" ) );
+        assertEquals( "any", t.match( "pom.xml" ) );
+    }
+
+    @Test
+    public void testEqualSpecificity() {
+        PathPatternTrie<String> t = new PathPatternTrie<String>();
+        t.add( "src/*.ttl", "first" );
+        t.add( "src/*.ttl", "second" );
+        assertEquals( Arrays.asList( "first", "second" ), t.matchAll( "src/test.ttl" ) );
+    }
+}
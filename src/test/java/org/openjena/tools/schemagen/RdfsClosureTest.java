@@ -0,0 +1,120 @@
+/*****************************************************************************
+ * File:    RdfsClosureTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.ontology.OntModelSpec;
+import com.hp.hpl.jena.rdf.model.*;
+import com.hp.hpl.jena.vocabulary.*;
+
+/**
+ * <p>Unit tests for {@link RdfsClosure}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class RdfsClosureTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    public static final String NS = "http://example.org/animals#";
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private Model m;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws Exception {
+        m = ModelFactory.createDefaultModel();
+        InputStream in = new FileInputStream( "src/test/resources/inf/animals.ttl" );
+        try {
+            m.read( in, NS, "Turtle" );
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testOwlClosure() {
+        long size = m.size();
+        int added = new RdfsClosure( OntModelSpec.OWL_MEM.getProfile() ).apply( m.getGraph() );
+        assertEquals( size + added, m.size() );
+
+        // classes from the class hierarchy, equivalences and domains
+        assertType( "Cat", OWL.Class );
+        assertType( "Mammal", OWL.Class );
+        assertType( "Companion", OWL.Class );
+
+        // properties from the property hierarchy, inverses and property types
+        assertType( "parent", RDF.Property );
+        assertType( "parent", OWL.ObjectProperty );
+        assertType( "child", OWL.ObjectProperty );
+        assertType( "ancestor", OWL.ObjectProperty );
+        assertType( "nickname", OWL.DatatypeProperty );
+        assertType( "owner", RDF.Property );
+
+        // individuals get super-classes, and the domains and ranges of super-properties
+        assertType( "tom", m.getResource( NS + "Mammal" ) );
+        assertType( "tom", m.getResource( NS + "Animal" ) );
+        assertType( "felix", m.getResource( NS + "Animal" ) );
+        assertType( "rex", m.getResource( NS + "Pet" ) );
+        assertType( "rex", m.getResource( NS + "Companion" ) );
+        assertFalse( m.contains( m.getResource( NS + "alice" ), RDF.type ) );
+
+        // built in terms are not given new types
+        assertFalse( m.contains( OWL.Class, RDF.type, OWL.Class ) );
+
+        // applying the closure again adds nothing
+        assertEquals( 0, new RdfsClosure( OntModelSpec.OWL_MEM.getProfile() ).apply( m.getGraph() ) );
+    }
+
+    @Test
+    public void testRdfsClosure() {
+        new RdfsClosure( OntModelSpec.RDFS_MEM.getProfile() ).apply( m.getGraph() );
+        assertType( "Cat", RDFS.Class );
+        assertType( "tom", m.getResource( NS + "Animal" ) );
+        assertType( "nickname", RDF.Property );
+
+        // OWL terms mean nothing in RDFS
+        assertFalse( m.contains( m.getResource( NS + "Companion" ), RDF.type ) );
+        assertFalse( m.contains( m.getResource( NS + "child" ), RDF.type ) );
+        assertFalse( m.contains( m.getResource( NS + "rex" ), RDF.type, m.getResource( NS + "Companion" ) ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected void assertType( String name, Resource type ) {
+        assertTrue( name + " a " + type, m.contains( m.getResource( NS + name ), RDF.type, type ) );
+    }
+}
@@ -0,0 +1,228 @@
+/*****************************************************************************
+ * File:    RemoteVocabularyCacheTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.util.FileUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>Unit tests for {@link RemoteVocabularyCache}, using a local HTTP server
+ * in place of a remote vocabulary host</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class RemoteVocabularyCacheTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final String ETAG = "\"v1\"";
+    protected static final String CONTENT = "<http://example.org/a> a <http://example.org/C> .\n";
+
+    /** Time taken by the server to respond to a request for a slow document */
+    protected static final int SLOW_DELAY = 500;
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private HttpServer server;
+    private File cacheDir;
+    private String url;
+
+    /** Number of requests that returned the document content */
+    private AtomicInteger fullResponses = new AtomicInteger();
+
+    /** Number of requests that returned 304 not modified */
+    private AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws Exception {
+        cacheDir = File.createTempFile( "schemagen", "cache" );
+        cacheDir.delete();
+
+        server = HttpServer.create( new InetSocketAddress( "127.0.0.1", 0 ), 0 );
+        server.createContext( "/vocab", new HttpHandler() {
+            public void handle( HttpExchange exchange ) throws IOException {
+                if (ETAG.equals( exchange.getRequestHeaders().getFirst( "If-None-Match" ) )) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders( 304, -1 );
+                }
+                else {
+                    fullResponses.incrementAndGet();
+                    byte[] body = CONTENT.getBytes( "UTF-8" );
+                    exchange.getResponseHeaders().set( "ETag", ETAG );
+                    exchange.getResponseHeaders().set( "Content-Type", "text/turtle; charset=utf-8" );
+                    exchange.sendResponseHeaders( 200, body.length );
+                    exchange.getResponseBody().write( body );
+                }
+                exchange.close();
+            }
+        } );
+        server.createContext( "/slow", new HttpHandler() {
+            public void handle( HttpExchange exchange ) throws IOException {
+                try {
+                    Thread.sleep( SLOW_DELAY );
+                }
+                catch (InterruptedException e) {
+                    // respond early
+                }
+                fullResponses.incrementAndGet();
+                byte[] body = CONTENT.getBytes( "UTF-8" );
+                exchange.sendResponseHeaders( 200, body.length );
+                exchange.getResponseBody().write( body );
+                exchange.close();
+            }
+        } );
+        server.setExecutor( Executors.newCachedThreadPool() );
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/vocab";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop( 0 );
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File f: files) {
+                f.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Test
+    public void testFetch() throws IOException {
+        RemoteVocabularyCache cache = new RemoteVocabularyCache( cacheDir, false );
+        RemoteVocabularyCache.CachedDocument doc = cache.resolve( url );
+        assertTrue( doc.isFetched() );
+        assertEquals( CONTENT, FileUtils.readWholeFileAsUTF8( doc.getFile().getPath() ) );
+        assertEquals( FileUtils.langTurtle, doc.getSyntax() );
+        assertEquals( 1, fullResponses.get() );
+    }
+
+    @Test
+    public void testRevalidate() throws IOException {
+        new RemoteVocabularyCache( cacheDir, false ).resolve( url );
+        RemoteVocabularyCache.CachedDocument doc = new RemoteVocabularyCache( cacheDir, false ).resolve( url );
+        assertFalse( doc.isFetched() );
+        assertEquals( CONTENT, FileUtils.readWholeFileAsUTF8( doc.getFile().getPath() ) );
+        assertEquals( FileUtils.langTurtle, doc.getSyntax() );
+        assertEquals( 1, fullResponses.get() );
+        assertEquals( 1, notModifiedResponses.get() );
+    }
+
+    @Test
+    public void testHeadersForOtherContent() throws IOException {
+        File data = new RemoteVocabularyCache( cacheDir, false ).resolve( url ).getFile();
+
+        // as if another build replaced the document but not yet its headers
+        Writer w = new OutputStreamWriter( new FileOutputStream( data ), "UTF-8" );
+        w.write( "<http://example.org/b> a <http://example.org/C> .\n" );
+        w.close();
+
+        RemoteVocabularyCache.CachedDocument doc = new RemoteVocabularyCache( cacheDir, false ).resolve( url );
+        assertTrue( doc.isFetched() );
+        assertEquals( CONTENT, FileUtils.readWholeFileAsUTF8( doc.getFile().getPath() ) );
+        assertEquals( 2, fullResponses.get() );
+        assertEquals( 0, notModifiedResponses.get() );
+    }
+
+    @Test
+    public void testOffline() throws IOException {
+        new RemoteVocabularyCache( cacheDir, false ).resolve( url );
+        server.stop( 0 );
+
+        RemoteVocabularyCache.CachedDocument doc = new RemoteVocabularyCache( cacheDir, true ).resolve( url );
+        assertFalse( doc.isFetched() );
+        assertEquals( CONTENT, FileUtils.readWholeFileAsUTF8( doc.getFile().getPath() ) );
+        assertEquals( 1, fullResponses.get() );
+    }
+
+    @Test( expected = IOException.class )
+    public void testOfflineNotCached() throws IOException {
+        new RemoteVocabularyCache( cacheDir, true ).resolve( url );
+    }
+
+    @Test( expected = IOException.class )
+    public void testNotFound() throws IOException {
+        new RemoteVocabularyCache( cacheDir, false ).resolve( url.replace( "/vocab", "/missing" ) );
+    }
+
+    @Test
+    public void testPrefetch() throws IOException {
+        RemoteVocabularyCache cache = new RemoteVocabularyCache( cacheDir, false );
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0;  i < 4;  i++) {
+            urls.add( url.replace( "/vocab", "/slow" ) + "?n=" + i );
+        }
+
+        long start = System.currentTimeMillis();
+        cache.prefetch( urls, 4 );
+        for (String u: urls) {
+            assertEquals( CONTENT, FileUtils.readWholeFileAsUTF8( cache.resolve( u ).getFile().getPath() ) );
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        cache.shutdown();
+
+        assertEquals( 4, fullResponses.get() );
+        assertTrue( "Fetches should overlap, took " + elapsed + "ms", elapsed < 3 * SLOW_DELAY );
+    }
+
+    @Test( expected = IOException.class )
+    public void testFetchTimeout() throws IOException {
+        RemoteVocabularyCache cache = new RemoteVocabularyCache( cacheDir, false );
+        cache.setFetchTimeout( SLOW_DELAY / 5 );
+        String slow = url.replace( "/vocab", "/slow" );
+        cache.prefetch( Collections.singletonList( slow ), 1 );
+        try {
+            cache.resolve( slow );
+        }
+        finally {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void testIsRemote() {
+        assertTrue( RemoteVocabularyCache.isRemote( "http://example.org/v.ttl" ) );
+        assertTrue( RemoteVocabularyCache.isRemote( "https://example.org/v.ttl" ) );
+        assertFalse( RemoteVocabularyCache.isRemote( "file:/tmp/v.ttl" ) );
+        assertFalse( RemoteVocabularyCache.isRemote( "src/main/vocabs/v.ttl" ) );
+    }
+}
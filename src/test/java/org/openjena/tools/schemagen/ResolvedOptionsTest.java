@@ -0,0 +1,115 @@
+/*****************************************************************************
+ * File:    ResolvedOptionsTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import jena.schemagen.SchemagenOptions.OPT;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.ResourceFactory;
+
+/**
+ * <p>Unit tests for {@link ResolvedOptions}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class ResolvedOptionsTest
+{
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private SchemagenOptions defaults;
+    private SchemagenOptions so;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() {
+        defaults = new SchemagenOptions.DefaultSchemagenOptions( "/tmp/target" );
+        defaults.setOption( OPT.PACKAGENAME, "org.example" );
+        defaults.setOption( OPT.INCLUDE, "http://example.org/a#" );
+        defaults.setOption( OPT.DOS, true );
+
+        so = new SchemagenOptions();
+        so.setParent( defaults );
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( "file:test.ttl" ) );
+        so.setOption( OPT.PACKAGENAME, "org.example.test" );
+        so.setOption( OPT.NO_COMMENTS, true );
+    }
+
+    @Test
+    public void testSameAsChain() {
+        ResolvedOptions ro = new ResolvedOptions( so );
+        for (OPT opt: OPT.values()) {
+            assertEquals( opt.name(), so.hasValue( opt ), ro.hasValue( opt ) );
+            assertEquals( opt.name(), so.getValue( opt ), ro.getValue( opt ) );
+            assertEquals( opt.name(), so.getStringValue( opt ), ro.getStringValue( opt ) );
+            assertEquals( opt.name(), so.getAllValues( opt ), ro.getAllValues( opt ) );
+            assertEquals( opt.name(), truth( so, opt ), truth( ro, opt ) );
+        }
+    }
+
+    @Test
+    public void testInterfaceAccessors() {
+        ResolvedOptions ro = new ResolvedOptions( so );
+        assertEquals( "/tmp/target" + SchemagenMojo.GENERATED_SOURCES, ro.getOutputOption() );
+        assertEquals( "org.example.test", ro.getPackagenameOption() );
+        assertEquals( "file:test.ttl", ro.getInputOption().getURI() );
+        assertEquals( Arrays.asList( "http://example.org/a#" ), ro.getIncludeOption() );
+        assertTrue( ro.hasNoCommentsOption() );
+        assertTrue( ro.hasDosOption() );
+        assertFalse( ro.hasUseInfOption() );
+        assertFalse( ro.hasClassnameOption() );
+        assertNull( ro.getClassnameOption() );
+    }
+
+    @Test
+    public void testSnapshot() {
+        ResolvedOptions ro = new ResolvedOptions( so );
+        defaults.setOption( OPT.CLASSNAME, "Changed" );
+        so.setOption( OPT.USE_INF, true );
+        assertFalse( ro.hasClassnameOption() );
+        assertFalse( ro.hasUseInfOption() );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void testImmutableValues() {
+        new ResolvedOptions( so ).getIncludeOption().add( "http://example.org/b#" );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Return the truth value of the option, or the type of error it raises */
+    protected Object truth( AbstractSchemagenOptions options, OPT opt ) {
+        try {
+            return options.isTrue( opt );
+        }
+        catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+}
@@ -17,11 +17,22 @@ package org.openjena.tools.schemagen;
 
 import static org.junit.Assert.*;
 
-import java.io.File;
-import java.util.List;
+import java.io.*;
+import java.util.*;
 
+import jena.schemagen.SchemagenOptions.OPT;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.Scanner;
 import org.junit.Test;
 import org.openjena.tools.schemagen.SchemagenMojo;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+import com.hp.hpl.jena.rdf.model.ResourceFactory;
+import com.hp.hpl.jena.util.FileUtils;
 
 /**
  * <p>Unit tests for {@link SchemagenMojo}</p>
@@ -75,5 +86,624 @@ public class SchemagenMojoTest {
         assertTrue( s.get(0).endsWith( "test2.ttl" ));
     }
 
+    @Test
+    public void testProjectBuildDir() {
+        SchemagenMojo sm0 = new SchemagenMojo();
+        SchemagenMojo sm1 = new SchemagenMojo();
+        assertEquals( new File( new File( "." ).getAbsoluteFile(), "target" ).getPath(), sm0.getProjectBuildDir() );
+
+        sm0.setProjectBuildDir( "/tmp/a/target" );
+        sm1.setProjectBuildDir( "/tmp/b/target" );
+        assertEquals( "/tmp/a/target", sm0.getProjectBuildDir() );
+        assertEquals( "/tmp/b/target", sm1.getProjectBuildDir() );
+    }
+
+    @Test
+    public void testThreadCount() {
+        SchemagenMojo sm = new SchemagenMojo();
+        assertEquals( 1, sm.getThreadCount() );
+
+        sm.setThreads( "4" );
+        assertEquals( 4, sm.getThreadCount() );
+
+        sm.setThreads( "0" );
+        assertEquals( 1, sm.getThreadCount() );
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        sm.setThreads( "1C" );
+        assertEquals( cores, sm.getThreadCount() );
+
+        sm.setThreads( "2.0C" );
+        assertEquals( 2 * cores, sm.getThreadCount() );
+
+        sm.setThreads( "lots" );
+        assertEquals( 1, sm.getThreadCount() );
+    }
+
+    @Test
+    public void testParallelLogOrder() throws MojoExecutionException {
+        SleepyMojo sm = new SleepyMojo();
+        sm.setThreads( "4" );
+        sm.translate( Arrays.asList( "f0", "f1", "f2", "f3", "f4", "f5" ) );
+        assertEquals( Arrays.asList( "f0", "f1", "f2", "f3", "f4", "f5" ), sm.log.messages );
+        assertEquals( 6, sm.processed.size() );
+    }
+
+    @Test
+    public void testParallelFailure() {
+        SleepyMojo sm = new SleepyMojo();
+        sm.setThreads( "4" );
+        sm.failures.add( "f3" );
+        sm.failures.add( "f1" );
+        try {
+            sm.translate( Arrays.asList( "f0", "f1", "f2", "f3", "f4", "f5" ) );
+            fail( "Expected translation to fail" );
+        }
+        catch (MojoExecutionException e) {
+            assertTrue( e.getMessage(), e.getMessage().contains( "f1" ) );
+        }
+        // without fail-fast, every input is still translated
+        assertEquals( 6, sm.processed.size() );
+        assertEquals( Arrays.asList( "f0", "f2", "f4", "f5" ), sm.log.messages );
+    }
+
+    @Test
+    public void testParallelFailFast() {
+        SleepyMojo sm = new SleepyMojo();
+        sm.setThreads( "2" );
+        sm.setFailFast( true );
+        sm.failures.add( "f00" );
+
+        List<String> fileNames = new ArrayList<String>();
+        for (int i = 0;  i < 40;  i++) {
+            fileNames.add( String.format( "f%02d", i ) );
+        }
+        try {
+            sm.translate( fileNames );
+            fail( "Expected translation to fail" );
+        }
+        catch (MojoExecutionException e) {
+            assertTrue( e.getMessage(), e.getMessage().contains( "f00" ) );
+        }
+        assertTrue( sm.processed.size() < fileNames.size() );
+
+        // the logs that were written are still in lexical order
+        List<String> sorted = new ArrayList<String>( sm.log.messages );
+        Collections.sort( sorted );
+        assertEquals( sorted, sm.log.messages );
+    }
+
+    @Test
+    public void testUnchangedOutputNotRewritten() throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( new File( "src/test/resources/test1/test1.ttl" ).toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+        so.setOption( OPT.PACKAGENAME, "org.example" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.new SchemagenAdapter().run( so );
+        File out = new File( outDir, "org/example/Test1.java" );
+        assertTrue( out.isFile() );
+        String content = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        assertFalse( content.contains( SchemagenMojo.DATE_PLACEHOLDER ) );
+
+        // regenerating the same output leaves the file alone
+        out.setLastModified( 1000000000000L );
+        sm.new SchemagenAdapter().run( so );
+        assertEquals( 1000000000000L, out.lastModified() );
+
+        // but a change to the generated source is written out
+        so.setOption( OPT.UC_NAMES, true );
+        sm.new SchemagenAdapter().run( so );
+        assertFalse( 1000000000000L == out.lastModified() );
+        assertFalse( content.equals( FileUtils.readWholeFileAsUTF8( out.getPath() ) ) );
+
+        out.delete();
+        new File( outDir, "org/example" ).delete();
+        new File( outDir, "org" ).delete();
+        outDir.delete();
+    }
+
+    @Test
+    public void testModelCache() throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        File input = new File( "src/test/resources/test1/test1.ttl" );
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( input.toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        ModelCache cache = sm.getModelCache();
+        cache.clear();
+        cache.requestMaxTriples( ModelCache.DEFAULT_MAX_TRIPLES );
+        long hits = cache.getHits();
+
+        SchemagenMojo.SchemagenAdapter adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        File out = new File( outDir, "Test1.java" );
+        String content = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        assertEquals( hits, cache.getHits() );
+        assertEquals( 1, cache.size() );
+
+        // a second translation of the same content uses the parsed model
+        out.delete();
+        adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        assertEquals( hits + 1, cache.getHits() );
+        assertEquals( withoutDate( content ), withoutDate( FileUtils.readWholeFileAsUTF8( out.getPath() ) ) );
+
+        // the next build session does not see the models of this one
+        SchemagenMojo next = new SchemagenMojo();
+        next.setSession( new Object() );
+        assertNotSame( cache, next.getModelCache() );
+        assertEquals( 0, next.getModelCache().size() );
+
+        // an execution that disables the cache does not use the shared cache
+        sm.setModelCacheTriples( 0 );
+        assertNotSame( cache, sm.getModelCache() );
+        out.delete();
+        adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        assertEquals( hits + 1, cache.getHits() );
+
+        out.delete();
+        outDir.delete();
+    }
+
+    @Test
+    public void testExtractTerms() throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        File input = new File( "src/test/resources/terms/scheme.ttl" );
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( input.toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+        File out = new File( outDir, "Scheme.java" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.getModelCache().clear();
+        sm.getModelCache().requestMaxTriples( ModelCache.DEFAULT_MAX_TRIPLES );
+        SchemagenMojo.SchemagenAdapter adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        String full = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        out.delete();
+
+        // reading just the terms gives the same output, including the guessed namespace
+        sm.setExtractTerms( true );
+        adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        assertEquals( withoutDate( full ), withoutDate( FileUtils.readWholeFileAsUTF8( out.getPath() ) ) );
+        assertTrue( full.indexOf( "http://example.org/scheme#" ) >= 0 );
+        assertTrue( full.indexOf( "A small cat" ) >= 0 );
+        assertEquals( 2, sm.getModelCache().size() );
+
+        out.delete();
+        outDir.delete();
+    }
+
+    @Test
+    public void testExtractTermsOntology() throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        File input = new File( "src/test/resources/terms/restrictions.ttl" );
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( input.toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+        so.setOption( OPT.ONTOLOGY, "true" );
+        File out = new File( outDir, "Restrictions.java" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.getModelCache().clear();
+        SchemagenMojo.SchemagenAdapter adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        String full = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        out.delete();
+
+        // individuals of classes known only from their domains, ranges and
+        // class expressions are typed in the same way
+        sm.setExtractTerms( true );
+        adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        assertEquals( withoutDate( full ), withoutDate( FileUtils.readWholeFileAsUTF8( out.getPath() ) ) );
+        for (String term: new String[] {"alice", "rex", "tom", "felix", "mouse"}) {
+            assertTrue( term, full.indexOf( "restrictions#" + term + "\"" ) >= 0 );
+        }
+
+        out.delete();
+        outDir.delete();
+    }
+
+    @Test
+    public void testMappedInput() throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        File input = new File( "src/test/resources/terms/scheme.ttl" );
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( input.toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+        File out = new File( outDir, "Scheme.java" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.getModelCache().clear();
+        assertFalse( sm.isMapped( input ) );
+        SchemagenMojo.SchemagenAdapter adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        String buffered = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        out.delete();
+
+        // every input is mapped, and the syntax is still found from the file name
+        sm.getModelCache().clear();
+        sm.setMapInputThreshold( 0 );
+        assertTrue( sm.isMapped( input ) );
+        adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        assertEquals( withoutDate( buffered ), withoutDate( FileUtils.readWholeFileAsUTF8( out.getPath() ) ) );
+
+        out.delete();
+        outDir.delete();
+    }
+
+    @Test
+    public void testMappedOnlyInOneShotBuilds() {
+        File input = new File( "src/test/resources/terms/scheme.ttl" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.setMapInputThreshold( 0 );
+        assertTrue( sm.isMapped( input ) );
+
+        // an IDE build keeps running, so the mapping would keep the file locked
+        sm.setBuildContext( new IncrementalBuildContext( "scheme.ttl" ) );
+        assertFalse( sm.isMapped( input ) );
+
+        SchemagenWatchMojo watch = new SchemagenWatchMojo();
+        watch.setMapInputThreshold( 0 );
+        assertFalse( watch.isMapped( input ) );
+    }
+
+    @Test
+    public void testFastInference() throws Exception {
+        // OWL inputs always use the rule reasoner
+        String owl = translate( "animals", "owl", true );
+        assertEquals( withoutDate( translate( "animals", "owl", false ) ), withoutDate( owl ) );
+        assertTrue( owl.indexOf( "animals#child\"" ) < 0 );
+
+        // the closure gives the same types as the RDFS reasoner
+        String rdfs = translate( "animals", "rdfs", true );
+        assertEquals( withoutDate( translate( "animals", "rdfs", false ) ), withoutDate( rdfs ) );
+        for (String term: new String[] {"Animal", "Mammal", "Cat", "Pet", "relative", "parent", "name", "nickname", "owner"}) {
+            assertTrue( term, rdfs.indexOf( "animals#" + term + "\"" ) >= 0 );
+        }
+        assertTrue( rdfs.indexOf( "animals#child\"" ) < 0 );
+
+        String pets = translate( "pets", "rdfs", true );
+        assertEquals( withoutDate( translate( "pets", "rdfs", false ) ), withoutDate( pets ) );
+        for (String term: new String[] {"Dog", "Person", "rex", "lassie", "alice", "tom"}) {
+            assertTrue( term, pets.indexOf( "pets#" + term + "\"" ) >= 0 );
+        }
+    }
+
+    @Test
+    public void testCompileSourceRoots() {
+        SchemagenMojo sm = new SchemagenMojo();
+        MavenProject project = new MavenProject( new Model() );
+        sm.setProject( project );
+        sm.resetOptions();
+
+        Source defaults = new Source();
+        defaults.setOutput( "/tmp/p/target/generated-sources" );
+        sm.handleDefaultOptions( defaults );
+        sm.handleOption( source( "a.ttl", "/tmp/p/other" ) );
+        sm.handleOption( source( "b.ttl", null ) );
+        sm.handleOption( source( "c.ttl", "/tmp/p/target/generated-sources" ) );
+        sm.handleOption( source( "d.ttl", "/tmp/p/One.java" ) );
+
+        Set<String> expected = new HashSet<String>();
+        expected.add( new File( "/tmp/p/target/generated-sources" ).getAbsolutePath() );
+        expected.add( new File( "/tmp/p/other" ).getAbsolutePath() );
+
+        sm.addCompileSourceRoots();
+        @SuppressWarnings( "unchecked" )
+        List<String> roots = (List<String>) project.getCompileSourceRoots();
+        assertEquals( 2, roots.size() );
+        assertEquals( expected, new HashSet<String>( roots ) );
+
+        // the roots are only added once
+        sm.addCompileSourceRoots();
+        assertEquals( 2, project.getCompileSourceRoots().size() );
+    }
+
+    @Test
+    public void testScopedOptions() {
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.resetOptions();
+        Source defaults = new Source();
+        defaults.setPackageName( "org.example" );
+        sm.handleDefaultOptions( defaults );
 
+        Source vocabs = source( "src/main/vocabs/", null );
+        vocabs.setPackageName( "org.example.vocabs" );
+        Source internal = source( "src/main/vocabs/internal/**/*.ttl", null );
+        internal.setPackageName( "org.example.internal" );
+        Source file = source( "src/main/vocabs/internal/special.ttl", null );
+        file.setClassName( "Special" );
+        sm.handleOption( internal );
+        sm.handleOption( vocabs );
+        sm.handleOption( file );
+        sm.linkScopedOptions();
+
+        assertEquals( "org.example", sm.getScopedOptions( "src/other/test.ttl" ).getPackagenameOption() );
+        assertEquals( "org.example.vocabs", sm.getScopedOptions( "src/main/vocabs/test.ttl" ).getPackagenameOption() );
+        assertEquals( "org.example.vocabs", sm.getScopedOptions( "src/main/vocabs/internal/test.rdf" ).getPackagenameOption() );
+        assertEquals( "org.example.internal", sm.getScopedOptions( "src/main/vocabs/internal/a/test.ttl" ).getPackagenameOption() );
+
+        // options for the file itself are layered over those of the matching patterns,
+        // without changing the configured options
+        SchemagenOptions special = sm.getFileOptions( "src/main/vocabs/internal/special.ttl" );
+        assertEquals( "org.example.internal", special.getPackagenameOption() );
+        assertEquals( "Special", special.getClassnameOption() );
+        assertNull( file.getParent() );
+
+        // files matched by the same patterns share the same options
+        assertSame( sm.getScopedOptions( "src/main/vocabs/a.ttl" ), sm.getScopedOptions( "src/main/vocabs/b.ttl" ) );
+        assertTrue( special.isFrozen() );
+    }
+
+    @Test
+    public void testDefaultOptionsMerged() {
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.resetOptions();
+        Source first = new Source();
+        first.setPackageName( "org.example" );
+        first.setClassName( "First" );
+        Source second = new Source();
+        second.setClassName( "Second" );
+        sm.handleDefaultOptions( first );
+        sm.handleDefaultOptions( second );
+        sm.linkScopedOptions();
+
+        SchemagenOptions so = sm.getFileOptions( "test.ttl" );
+        assertEquals( "org.example", so.getPackagenameOption() );
+        assertEquals( "Second", so.getClassnameOption() );
+        assertNull( first.getParent() );
+        assertNull( second.getParent() );
+    }
+
+    @Test
+    public void testIncrementalBuild() {
+        List<String> fileNames = Arrays.asList( "src/test/resources/test1/test1.ttl", "src/test/resources/test1/test2.ttl" );
+        SchemagenMojo sm = new SchemagenMojo();
+        assertEquals( fileNames, sm.selectChanged( fileNames ) );
+
+        sm.setBuildContext( new IncrementalBuildContext( "test2.ttl" ) );
+        assertEquals( Collections.singletonList( fileNames.get( 1 ) ), sm.selectChanged( fileNames ) );
+
+        // a change to the project configuration affects every input
+        sm.setBuildContext( new IncrementalBuildContext( "pom.xml" ) );
+        assertEquals( fileNames, sm.selectChanged( fileNames ) );
+    }
+
+    @Test
+    public void testUpToDateInputSkipped() throws Exception {
+        File baseDir = newProject( "test1.ttl" );
+        try {
+            newMojo( baseDir, "src/main/vocabs/*.ttl" ).execute();
+            File out = new File( baseDir, "target/generated-sources/Test1.java" );
+            assertTrue( out.isFile() );
+
+            // a second build leaves the output of the unchanged input alone
+            String marker = "// not regenerated";
+            append( out, marker );
+            out.setLastModified( 1000000000000L );
+            SchemagenMojo sm = newMojo( baseDir, "src/main/vocabs/*.ttl" );
+            RecordingLog log = new RecordingLog();
+            sm.setLog( log );
+            sm.execute();
+            assertTrue( log.messages.contains( "Skipping src/main/vocabs/test1.ttl: output is up to date" ) );
+            assertEquals( 1000000000000L, out.lastModified() );
+            assertTrue( FileUtils.readWholeFileAsUTF8( out.getPath() ).endsWith( marker ) );
+
+            // but is translated again once the input changes
+            File input = new File( baseDir, "src/main/vocabs/test1.ttl" );
+            append( input, "\n# changed\n" );
+            newMojo( baseDir, "src/main/vocabs/*.ttl" ).execute();
+            assertFalse( FileUtils.readWholeFileAsUTF8( out.getPath() ).endsWith( marker ) );
+        }
+        finally {
+            org.codehaus.plexus.util.FileUtils.deleteDirectory( baseDir );
+        }
+    }
+
+    @Test
+    public void testSeparateExecutions() throws Exception {
+        File baseDir = newProject( "test1.ttl", "other.ttl" );
+        try {
+            SchemagenMojo first = newMojo( baseDir, "src/main/vocabs/test1.ttl" );
+            first.setExecutionId( "first" );
+            first.execute();
+            SchemagenMojo second = newMojo( baseDir, "src/main/vocabs/other.ttl" );
+            second.setExecutionId( "second" );
+            second.execute();
+
+            // neither execution removes the output of the other
+            File out1 = new File( baseDir, "target/generated-sources/Test1.java" );
+            File out2 = new File( baseDir, "target/generated-sources/Other.java" );
+            assertTrue( out1.isFile() );
+            assertTrue( out2.isFile() );
+            first = newMojo( baseDir, "src/main/vocabs/test1.ttl" );
+            first.setExecutionId( "first" );
+            first.execute();
+            assertTrue( out1.isFile() );
+            assertTrue( out2.isFile() );
+
+            // but each still removes its own outputs that are no longer generated
+            first = newMojo( baseDir, "src/main/vocabs/none.ttl" );
+            first.setExecutionId( "first" );
+            first.execute();
+            assertFalse( out1.isFile() );
+            assertTrue( out2.isFile() );
+        }
+        finally {
+            org.codehaus.plexus.util.FileUtils.deleteDirectory( baseDir );
+        }
+    }
+
+    /** Translate the test ontology with use-inf, in the given language, and return the output */
+    protected String translate( String name, String lang, boolean fastInference ) throws Exception {
+        File outDir = File.createTempFile( "schemagen", "out" );
+        outDir.delete();
+        File input = new File( "src/test/resources/inf/" + name + ".ttl" );
+        SchemagenOptions so = new SchemagenOptions();
+        so.setOption( OPT.INPUT, ResourceFactory.createResource( input.toURI().toString() ) );
+        so.setOption( OPT.OUTPUT, outDir.getPath() );
+        so.setOption( OPT.NAMESPACE, ResourceFactory.createResource( "http://example.org/" + name + "#" ) );
+        so.setOption( OPT.USE_INF, "true" );
+        so.setOption( lang.equals( "rdfs" ) ? OPT.LANG_RDFS : OPT.LANG_OWL, "true" );
+
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.getModelCache().clear();
+        sm.setFastInference( fastInference );
+        SchemagenMojo.SchemagenAdapter adapter = sm.new SchemagenAdapter();
+        adapter.setInputFile( input );
+        adapter.run( so );
+        File out = new File( outDir, Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 ) + ".java" );
+        String content = FileUtils.readWholeFileAsUTF8( out.getPath() );
+        out.delete();
+        outDir.delete();
+        return content;
+    }
+
+    /** Create a project directory with a copy of the test vocabulary under each of the given names in src/main/vocabs */
+    protected File newProject( String... vocabs ) throws IOException {
+        File baseDir = File.createTempFile( "schemagen", "project" );
+        baseDir.delete();
+        File vocabDir = new File( baseDir, "src/main/vocabs" );
+        vocabDir.mkdirs();
+        for (String vocab: vocabs) {
+            org.codehaus.plexus.util.FileUtils.copyFile( new File( "src/test/resources/test1/test1.ttl" ), new File( vocabDir, vocab ) );
+        }
+        return baseDir;
+    }
+
+    /** Return a mojo that translates the given inputs of the project, without fetching remote vocabularies */
+    protected SchemagenMojo newMojo( File baseDir, String... includes ) {
+        SchemagenMojo sm = new SchemagenMojo();
+        sm.setBaseDir( baseDir );
+        sm.setProjectBuildDir( new File( baseDir, "target" ).getPath() );
+        sm.setIncludes( includes );
+        return sm;
+    }
+
+    /** Append the text to the file */
+    protected void append( File f, String text ) throws IOException {
+        Writer w = new OutputStreamWriter( new FileOutputStream( f, true ), "UTF-8" );
+        try {
+            w.write( text );
+        }
+        finally {
+            w.close();
+        }
+    }
+
+    /** Return the generated source without the generation date */
+    protected String withoutDate( String source ) {
+        return source.replaceAll( "schemagen on .*", "" );
+    }
+
+    /** Return the options for the given input, with an optional output location */
+    protected Source source( String input, String output ) {
+        Source s = new Source();
+        s.setInput( input );
+        if (output != null) {
+            s.setOutput( output );
+        }
+        return s;
+    }
+
+    /**
+     * Mojo that pretends to translate each file, taking longer for files that
+     * are earlier in lexical order
+     */
+    protected static class SleepyMojo
+        extends SchemagenMojo
+    {
+        RecordingLog log = new RecordingLog();
+        Set<String> failures = new HashSet<String>();
+        List<String> processed = Collections.synchronizedList( new ArrayList<String>() );
+
+        SleepyMojo() {
+            setLog( log );
+        }
+
+        @Override
+        protected void processFile( String fileName ) throws MojoExecutionException {
+            processed.add( fileName );
+            if (failures.contains( fileName )) {
+                throw new MojoExecutionException( "Failed on " + fileName );
+            }
+            try {
+                Thread.sleep( 100 - 10 * (processed.size() % 10) );
+            }
+            catch (InterruptedException e) {
+                throw new MojoExecutionException( "Interrupted" );
+            }
+            getLog().info( fileName );
+        }
+    }
+
+    /** Log that records the info messages that are not progress reports */
+    protected static class RecordingLog
+        extends SystemStreamLog
+    {
+        List<String> messages = Collections.synchronizedList( new ArrayList<String>() );
+
+        @Override
+        public void info( CharSequence content ) {
+            if (!content.toString().startsWith( "Translating" )) {
+                messages.add( content.toString() );
+            }
+        }
+    }
+
+    /** Incremental build context in which only files with the given name have changed */
+    protected static class IncrementalBuildContext
+        implements BuildContext
+    {
+        private String changed;
+
+        IncrementalBuildContext( String changed ) {
+            this.changed = changed;
+        }
+
+        public boolean isIncremental() { return true; }
+        public boolean hasDelta( String relpath ) { return relpath.endsWith( changed ); }
+        public boolean hasDelta( File file ) { return file.getName().equals( changed ); }
+        @SuppressWarnings( "rawtypes" )
+        public boolean hasDelta( List relpaths ) { return false; }
+        public void refresh( File file ) {}
+        public OutputStream newFileOutputStream( File file ) throws IOException { return new FileOutputStream( file ); }
+        public Scanner newScanner( File basedir ) { return null; }
+        public Scanner newDeleteScanner( File basedir ) { return null; }
+        public Scanner newScanner( File basedir, boolean ignoreDelta ) { return null; }
+        public void setValue( String key, Object value ) {}
+        public Object getValue( String key ) { return null; }
+        @Deprecated
+        public void addWarning( File file, int line, int column, String message, Throwable cause ) {}
+        @Deprecated
+        public void addError( File file, int line, int column, String message, Throwable cause ) {}
+        public void addMessage( File file, int line, int column, String message, int severity, Throwable cause ) {}
+        public void removeMessages( File file ) {}
+        public boolean isUptodate( File target, File source ) { return false; }
+    }
 }
@@ -18,6 +18,7 @@ package org.openjena.tools.schemagen;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.List;
 
 import jena.schemagen.SchemagenOptions.OPT;
@@ -359,6 +360,94 @@ public class SchemagenOptionsTest
         assertTrue( l.contains( "bar" ));
     }
 
+    /**
+     * Test method for {@link org.openjena.tools.schemagen.SchemagenOptions.DefaultSchemagenOptions}.
+     */
+    @Test
+    public void testDefaultOptions() {
+        SchemagenOptions so0 = new SchemagenOptions.DefaultSchemagenOptions( "/tmp/a/target" );
+        SchemagenOptions so1 = new SchemagenOptions.DefaultSchemagenOptions( "/tmp/b/target" );
+        assertEquals( "/tmp/a/target" + SchemagenMojo.GENERATED_SOURCES, so0.getOutputOption() );
+        assertEquals( "/tmp/b/target" + SchemagenMojo.GENERATED_SOURCES, so1.getOutputOption() );
+    }
+
+    /**
+     * Test method for the local option values, which follow the same rules as
+     * values held in an RDF configuration model
+     */
+    @Test
+    public void testLocalValues() {
+        SchemagenOptions so0 = new SchemagenOptions();
+        assertFalse( so0.hasValue( OPT.INCLUDE ) );
+        assertTrue( so0.getAllValues( OPT.INCLUDE ).isEmpty() );
+
+        // setting the same value twice has no effect
+        so0.setOption( OPT.INCLUDE, "foo" );
+        so0.setOption( OPT.INCLUDE, "foo" );
+        so0.setOption( OPT.INCLUDE, "bar" );
+        assertEquals( Arrays.asList( "foo", "bar" ), so0.getAllValues( OPT.INCLUDE ) );
+
+        // boolean values, as typed or plain literals
+        so0.setOption( OPT.DOS, true );
+        so0.setOption( OPT.NOHEADER, "true" );
+        assertTrue( so0.isTrue( OPT.DOS ) );
+        assertTrue( so0.isTrue( OPT.NOHEADER ) );
+        assertEquals( "true", so0.getStringValue( OPT.DOS ) );
+        assertTrue( so0.getValue( OPT.DOS ).asLiteral().getBoolean() );
+
+        // resource values
+        so0.setOption( OPT.NAMESPACE, ResourceFactory.createResource( "http://example.org/ns#" ) );
+        assertTrue( so0.hasResourceValue( OPT.NAMESPACE ) );
+        assertEquals( "http://example.org/ns#", so0.getNamespaceOption().getURI() );
+        assertEquals( Arrays.asList( "http://example.org/ns#" ), so0.getAllValues( OPT.NAMESPACE ) );
+    }
+
+    @Test
+    public void testFreeze() {
+        SchemagenOptions so0 = new SchemagenOptions();
+        SchemagenOptions so1 = new SchemagenOptions();
+        so0.setParent( so1 );
+        so1.setOption( OPT.PACKAGENAME, "org.example" );
+        so0.setOption( OPT.CLASSNAME, "Test" );
+
+        so0.freeze();
+        assertTrue( so0.isFrozen() );
+        assertTrue( so1.isFrozen() );
+        assertEquals( "org.example", so0.getPackagenameOption() );
+        assertEquals( "Test", so0.getClassnameOption() );
+        assertSame( so0.getAllValues( OPT.PACKAGENAME ), so0.getAllValues( OPT.PACKAGENAME ) );
+
+        try {
+            so1.setOption( OPT.PACKAGENAME, "org.example.other" );
+            fail( "Frozen options should not be changed" );
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLayer() {
+        SchemagenOptions parent = new SchemagenOptions();
+        parent.setOption( OPT.PACKAGENAME, "org.example" );
+        SchemagenOptions local = new SchemagenOptions();
+        local.setOption( OPT.CLASSNAME, "Test" );
+        local.setOption( OPT.INCLUDE, "foo" );
+
+        SchemagenOptions so = SchemagenOptions.layer( local, parent );
+        assertSame( parent, so.getParent() );
+        assertNull( local.getParent() );
+        assertEquals( "org.example", so.getPackagenameOption() );
+        assertEquals( "Test", so.getClassnameOption() );
+
+        // values that are overridden are replaced, not added to
+        SchemagenOptions other = new SchemagenOptions();
+        other.setOption( OPT.INCLUDE, "bar" );
+        so.overrideFrom( other );
+        assertEquals( Arrays.asList( "bar" ), so.getAllValues( OPT.INCLUDE ) );
+        assertEquals( Arrays.asList( "foo" ), local.getAllValues( OPT.INCLUDE ) );
+    }
+
     /***********************************/
     /* Internal implementation methods */
     /***********************************/
@@ -0,0 +1,262 @@
+/*****************************************************************************
+ * File:    SchemagenWatchMojoTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link SchemagenWatchMojo}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class SchemagenWatchMojoTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final String VOCAB = "@prefix ex: <http://example.org/ns#> .\n"
+            + "@prefix owl: <http://www.w3.org/2002/07/owl#> .\n"
+            + "ex:First a owl:Class .\n";
+
+    /** Longest time to wait for the watcher to act */
+    protected static final long TIMEOUT = 20000;
+
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private File baseDir;
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = File.createTempFile( "schemagen", "watch" );
+        baseDir.delete();
+        new File( baseDir, "src/main/vocabs" ).mkdirs();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory( baseDir );
+    }
+
+    @Test
+    public void testWatch() throws Exception {
+        File vocab = new File( baseDir, "src/main/vocabs/test.ttl" );
+        FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB );
+
+        final SchemagenWatchMojo mojo = new SchemagenWatchMojo();
+        mojo.setBaseDir( baseDir );
+        mojo.setProjectBuildDir( new File( baseDir, "target" ).getPath() );
+        mojo.setIncludes( new String[] {"src/main/vocabs/*.ttl"} );
+        mojo.setPollInterval( 20 );
+        mojo.setQuietPeriod( 50 );
+
+        final List<Throwable> failures = Collections.synchronizedList( new ArrayList<Throwable>() );
+        Thread watcher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    mojo.execute();
+                }
+                catch (Throwable e) {
+                    failures.add( e );
+                }
+            }
+        };
+        watcher.start();
+
+        try {
+            File out = new File( baseDir, "target/generated-sources/Test.java" );
+            assertTrue( "initial translation", await( out, "First" ) );
+
+            // a change to the input is translated without restarting
+            FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB + "ex:Second a owl:Class .\n" );
+            vocab.setLastModified( vocab.lastModified() + 2000 );
+            assertTrue( "changed input", await( out, "Second" ) );
+
+            // as is a new input
+            File added = new File( baseDir, "src/main/vocabs/added.ttl" );
+            FileUtils.fileWrite( added.getPath(), "UTF-8", VOCAB );
+            assertTrue( "added input", await( new File( baseDir, "target/generated-sources/Added.java" ), "First" ) );
+        }
+        finally {
+            mojo.stop();
+            watcher.join( TIMEOUT );
+        }
+        assertFalse( watcher.isAlive() );
+        assertEquals( Collections.emptyList(), failures );
+    }
+
+    @Test
+    public void testPollSearchesOnlyChangedDirectories() throws Exception {
+        File vocabs = new File( baseDir, "src/main/vocabs" );
+        File vocab = new File( vocabs, "test.ttl" );
+        FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB );
+        long old = System.currentTimeMillis() - 60000;
+        vocabs.setLastModified( old );
+
+        CountingWatchMojo mojo = new CountingWatchMojo();
+        mojo.setBaseDir( baseDir );
+        mojo.setIncludes( new String[] {"src/main/vocabs/**/*.ttl"} );
+        Map<String, String> snapshot = mojo.snapshot( mojo.matchFileNames() );
+        assertEquals( 1, mojo.searches );
+
+        // polling an unchanged tree, or one whose inputs have changed, does not search again
+        assertEquals( snapshot, mojo.poll( snapshot ) );
+        FileUtils.fileAppend( vocab.getPath(), "ex:Second a owl:Class .\n" );
+        vocabs.setLastModified( old );
+        assertFalse( snapshot.equals( mojo.poll( snapshot ) ) );
+        assertEquals( 1, mojo.searches );
+
+        // but a new file changes the directory, so the inputs are found again
+        File added = new File( vocabs, "added.ttl" );
+        FileUtils.fileWrite( added.getPath(), "UTF-8", VOCAB );
+        vocabs.setLastModified( old + 1000 );
+        assertTrue( mojo.poll( snapshot ).containsKey( "src/main/vocabs/added.ttl".replace( '/', File.separatorChar ) ) );
+        assertEquals( 2, mojo.searches );
+    }
+
+    @Test
+    public void testWatchAfterFailure() throws Exception {
+        File vocab = new File( baseDir, "src/main/vocabs/test.ttl" );
+        FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB );
+
+        final FailingWatchMojo mojo = new FailingWatchMojo();
+        mojo.setBaseDir( baseDir );
+        mojo.setProjectBuildDir( new File( baseDir, "target" ).getPath() );
+        mojo.setIncludes( new String[] {"src/main/vocabs/*.ttl"} );
+        mojo.setPollInterval( 20 );
+        mojo.setQuietPeriod( 50 );
+
+        final List<Throwable> failures = Collections.synchronizedList( new ArrayList<Throwable>() );
+        Thread watcher = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    mojo.execute();
+                }
+                catch (Throwable e) {
+                    failures.add( e );
+                }
+            }
+        };
+        watcher.start();
+
+        try {
+            File out = new File( baseDir, "target/generated-sources/Test.java" );
+            assertTrue( "initial translation", await( out, "First" ) );
+
+            // the first change fails unexpectedly, but the next is still translated
+            mojo.failNext = true;
+            FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB + "ex:Second a owl:Class .\n" );
+            vocab.setLastModified( vocab.lastModified() + 2000 );
+            long end = System.currentTimeMillis() + TIMEOUT;
+            while (mojo.failNext && System.currentTimeMillis() < end) {
+                Thread.sleep( 20 );
+            }
+            assertFalse( "failed build", mojo.failNext );
+
+            FileUtils.fileWrite( vocab.getPath(), "UTF-8", VOCAB + "ex:Third a owl:Class .\n" );
+            vocab.setLastModified( vocab.lastModified() + 4000 );
+            assertTrue( "changed input", await( out, "Third" ) );
+        }
+        finally {
+            mojo.stop();
+            watcher.join( TIMEOUT );
+        }
+        assertFalse( watcher.isAlive() );
+        assertEquals( Collections.emptyList(), failures );
+    }
+
+    @Test
+    public void testChangedFiles() {
+        Map<String, String> before = new HashMap<String, String>();
+        before.put( "a.ttl", "1:10" );
+        before.put( "b.ttl", "1:10" );
+        before.put( "c.ttl", "1:10" );
+        Map<String, String> after = new HashMap<String, String>( before );
+        after.put( "b.ttl", "2:10" );
+        after.put( "d.ttl", "1:10" );
+        after.remove( "c.ttl" );
+        assertEquals( Arrays.asList( "b.ttl", "d.ttl" ), SchemagenWatchMojo.changedFiles( before, after ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    /** Wait for the file to exist and contain the given text */
+    protected boolean await( File file, String text ) throws Exception {
+        long end = System.currentTimeMillis() + TIMEOUT;
+        while (System.currentTimeMillis() < end) {
+            if (file.isFile() && FileUtils.fileRead( file, "UTF-8" ).contains( text )) {
+                return true;
+            }
+            Thread.sleep( 20 );
+        }
+        return false;
+    }
+
+    /***********************************/
+    /* Inner class definitions         */
+    /***********************************/
+
+    /** Watch goal that counts the searches for inputs */
+    protected static class CountingWatchMojo
+        extends SchemagenWatchMojo
+    {
+        int searches = 0;
+
+        @Override
+        protected List<String> matchFileNames() {
+            searches++;
+            return super.matchFileNames();
+        }
+    }
+
+    /** Watch goal whose next build can be made to fail with a runtime exception */
+    protected static class FailingWatchMojo
+        extends SchemagenWatchMojo
+    {
+        volatile boolean failNext = false;
+
+        @Override
+        protected void build( List<String> fileNames, List<String> changed )
+            throws MojoExecutionException
+        {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException( "Unexpected failure" );
+            }
+            super.build( fileNames, changed );
+        }
+    }
+}
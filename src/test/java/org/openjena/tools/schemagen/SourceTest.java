@@ -66,6 +66,17 @@ public class SourceTest
         //
     }
 
+    /**
+     * Test method for {@link org.openjena.tools.schemagen.Source#isDefaultOptions()}.
+     */
+    @Test
+    public void testIsDefaultOptions() {
+        Source s = new Source();
+        assertFalse( s.isDefaultOptions() );
+        s.setInput( SchemagenMojo.DEFAULT_OPTIONS_ELEM );
+        assertTrue( s.isDefaultOptions() );
+    }
+
     /**
      * Test method for {@link org.openjena.tools.schemagen.Source#setInput(java.lang.String)}.
      */
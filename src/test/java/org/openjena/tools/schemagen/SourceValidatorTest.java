@@ -0,0 +1,128 @@
+/*****************************************************************************
+ * File:    SourceValidatorTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * <p>Unit tests for {@link SourceValidator}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class SourceValidatorTest
+{
+    /***********************************/
+    /* Instance variables              */
+    /***********************************/
+
+    private SourceValidator validator = new SourceValidator( Arrays.asList(
+            "src/main/vocabs/a.ttl", "src/main/vocabs/internal/b.ttl", "http://example.org/v.ttl" ) );
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Test
+    public void testValid() {
+        Source defaults = source( SchemagenMojo.DEFAULT_OPTIONS_ELEM );
+        defaults.setPackageName( "org.example.test" );
+        defaults.setOutput( "target/generated-sources" );
+        Source file = source( "src/main/vocabs/a.ttl" );
+        file.setLangOwl( "true" );
+        file.setLangRdfs( "false" );
+
+        List<String> problems = validator.validate( Arrays.asList( defaults, file,
+                source( "src/main/vocabs/internal/" ), source( "src/main/**/b.ttl" ),
+                source( "http://example.org/v.ttl" ) ) );
+        assertEquals( problems.toString(), 0, problems.size() );
+        assertTrue( validator.validate( null ).isEmpty() );
+    }
+
+    @Test
+    public void testUnknownInputs() {
+        List<String> problems = validator.validate( Arrays.asList( new Source(),
+                source( "src/main/vocabs/typo.ttl" ), source( "src/main/other/" ), source( "**/*.rdf" ) ) );
+        assertEquals( 4, problems.size() );
+        assertTrue( problems.get( 0 ), problems.get( 0 ).startsWith( "<source> 1: no <input>" ) );
+        assertTrue( problems.get( 1 ), problems.get( 1 ).startsWith( "<source> 2 (src/main/vocabs/typo.ttl)" ) );
+    }
+
+    @Test
+    public void testConflictingLanguages() {
+        Source s = source( "src/main/vocabs/a.ttl" );
+        s.setLangOwl( "true" );
+        s.setLangRdfs( "true" );
+        List<String> problems = validator.validate( Arrays.asList( s ) );
+        assertEquals( 1, problems.size() );
+        assertTrue( problems.get( 0 ), problems.get( 0 ).contains( "[lang-owl, lang-rdfs]" ) );
+    }
+
+    @Test
+    public void testUnwritableOutput() throws IOException {
+        File f = File.createTempFile( "schemagen", "test" );
+        try {
+            Source dir = source( "src/main/vocabs/a.ttl" );
+            dir.setOutput( new File( f, "sub" ).getPath() );
+            Source java = source( "src/main/vocabs/a.ttl" );
+            java.setOutput( new File( f.getParentFile(), "Test.java" ).getPath() );
+            assertEquals( 1, validator.validate( Arrays.asList( dir, java ) ).size() );
+        }
+        finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testPackageNames() {
+        assertTrue( SourceValidator.isPackageName( "org.example.test" ) );
+        assertTrue( SourceValidator.isPackageName( "vocab_1" ) );
+        assertFalse( SourceValidator.isPackageName( "" ) );
+        assertFalse( SourceValidator.isPackageName( "org..example" ) );
+        assertFalse( SourceValidator.isPackageName( "org.example." ) );
+        assertFalse( SourceValidator.isPackageName( "org.1example" ) );
+        assertFalse( SourceValidator.isPackageName( "org.example-test" ) );
+        assertFalse( SourceValidator.isPackageName( "org.new" ) );
+    }
+
+    @Test
+    public void testReport() {
+        Source s = source( "src/main/vocabs/a.ttl" );
+        s.setPackageName( "org.example-test" );
+        List<String> problems = validator.validate( Arrays.asList( s, source( "missing.ttl" ) ) );
+        String report = SourceValidator.report( problems );
+        assertTrue( report, report.startsWith( "Invalid schemagen configuration: 2 problems" ) );
+        assertTrue( report, report.contains( "org.example-test" ) );
+        assertTrue( report, report.contains( "missing.ttl" ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected Source source( String input ) {
+        Source s = new Source();
+        s.setInput( input );
+        return s;
+    }
+}
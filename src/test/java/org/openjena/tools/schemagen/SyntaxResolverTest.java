@@ -0,0 +1,134 @@
+/*****************************************************************************
+ * File:    SyntaxResolverTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.util.FileUtils;
+
+/**
+ * <p>Unit tests for {@link SyntaxResolver}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class SyntaxResolverTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    protected static final String NTRIPLES = "# a comment\n"
+            + "<http://example.org/a> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/C> .\n"
+            + "_:b1 <http://www.w3.org/2000/01/rdf-schema#comment> \"a \\\"quoted\\\" comment\"@en .\n"
+            + "<http://example.org/a> <http://example.org/p> \"1\"^^<http://www.w3.org/2001/XMLSchema#int> .\n";
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Test
+    public void testFromExtension() {
+        assertEquals( FileUtils.langTurtle, SyntaxResolver.fromExtension( "src/main/vocabs/a.ttl" ) );
+        assertEquals( FileUtils.langNTriple, SyntaxResolver.fromExtension( "file:/vocabs/a.NT" ) );
+        assertEquals( FileUtils.langXML, SyntaxResolver.fromExtension( "http://example.org/a.owl#" ) );
+        assertEquals( FileUtils.langN3, SyntaxResolver.fromExtension( "a.n3.bz2" ) );
+        assertNull( SyntaxResolver.fromExtension( "http://example.org/vocab" ) );
+        assertNull( SyntaxResolver.fromExtension( "http://example.org/v1.2/vocab" ) );
+        assertNull( SyntaxResolver.fromExtension( "a.txt" ) );
+    }
+
+    @Test
+    public void testSniff() {
+        assertEquals( FileUtils.langXML, SyntaxResolver.sniff( "<?xml version=\"1.0\"?>\n<rdf:RDF/>" ) );
+        assertEquals( FileUtils.langXML, SyntaxResolver.sniff( "\ufeff  <rdf:RDF xmlns:rdf=\"x\">\n" ) );
+        assertEquals( FileUtils.langTurtle, SyntaxResolver.sniff( "@prefix ex: <http://example.org/> .\nex:a a ex:C .\n" ) );
+        assertEquals( FileUtils.langTurtle, SyntaxResolver.sniff( "<http://example.org/a> a <http://example.org/C> .\n" ) );
+
+        // N-Triples is read as Turtle, of which it is a subset
+        assertEquals( FileUtils.langTurtle, SyntaxResolver.sniff( NTRIPLES ) );
+    }
+
+    @Test
+    public void testTurtleStartingWithNTriples() throws IOException {
+        // a Turtle document whose first kilobyte is all N-Triples statements
+        StringBuilder doc = new StringBuilder();
+        int statements = 0;
+        while (doc.length() <= SyntaxResolver.SNIFF_SIZE) {
+            doc.append( "<http://example.org/a" ).append( statements++ )
+               .append( "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://example.org/C> .\n" );
+        }
+        doc.append( "@prefix ex: <http://example.org/> .\n" )
+           .append( "ex:b a ex:C ; ex:p \"b\" .\n" );
+
+        File f = File.createTempFile( "schemagen", ".data" );
+        OutputStream out = new FileOutputStream( f );
+        try {
+            out.write( doc.toString().getBytes( "UTF-8" ) );
+        }
+        finally {
+            out.close();
+        }
+
+        try {
+            String syntax = SyntaxResolver.resolve( null, f.getName(), f );
+            assertEquals( FileUtils.langTurtle, syntax );
+
+            Model m = ModelFactory.createDefaultModel();
+            InputStream in = new FileInputStream( f );
+            try {
+                m.read( in, "http://example.org/", syntax );
+            }
+            finally {
+                in.close();
+            }
+            assertEquals( statements + 2, m.size() );
+        }
+        finally {
+            f.delete();
+        }
+    }
+
+    @Test
+    public void testResolve() throws IOException {
+        File f = File.createTempFile( "schemagen", ".data.gz" );
+        OutputStream out = new GZIPOutputStream( new FileOutputStream( f ) );
+        try {
+            out.write( NTRIPLES.getBytes( "UTF-8" ) );
+        }
+        finally {
+            out.close();
+        }
+
+        try {
+            // the encoding option wins, then the extension, then the content
+            assertEquals( FileUtils.langTurtle, SyntaxResolver.resolve( FileUtils.langTurtle, "a.rdf", f ) );
+            assertEquals( FileUtils.langXML, SyntaxResolver.resolve( null, "a.rdf", f ) );
+            assertEquals( FileUtils.langTurtle, SyntaxResolver.resolve( null, f.getName(), f ) );
+            assertNull( SyntaxResolver.resolve( null, "a.data", null ) );
+        }
+        finally {
+            f.delete();
+        }
+    }
+}
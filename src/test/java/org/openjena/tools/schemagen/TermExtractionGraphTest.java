@@ -0,0 +1,132 @@
+/*****************************************************************************
+ * File:    TermExtractionGraphTest.java
+ * Project: schemagen
+ * Created: 18 Oct 2026
+ * By:      ian
+ *
+ * Copyright (c) 2010-11 Epimorphics Ltd. See LICENSE file for license terms.
+ *****************************************************************************/
+
+// Package
+///////////////
+
+package org.openjena.tools.schemagen;
+
+
+// Imports
+///////////////
+
+import static org.junit.Assert.*;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.hp.hpl.jena.rdf.model.*;
+import com.hp.hpl.jena.vocabulary.RDF;
+import com.hp.hpl.jena.vocabulary.RDFS;
+
+/**
+ * <p>Unit tests for {@link TermExtractionGraph}</p>
+ *
+ * @author Ian Dickinson, Epimorphics (mailto:ian@epimorphics.com)
+ */
+public class TermExtractionGraphTest
+{
+    /***********************************/
+    /* Constants                       */
+    /***********************************/
+
+    public static final String NS = "http://example.org/scheme#";
+    public static final String SKOS = "http://www.w3.org/2004/02/skos/core#";
+
+    /***********************************/
+    /* External signature methods      */
+    /***********************************/
+
+    @Test
+    public void testKeepsTerms() throws Exception {
+        Model m = TermExtractionGraph.createModel();
+        read( m );
+        TermExtractionGraph g = (TermExtractionGraph) m.getGraph();
+
+        Resource cat = m.getResource( NS + "cat" );
+        assertTrue( m.contains( cat, RDF.type, m.getResource( NS + "Concept" ) ) );
+        assertTrue( m.contains( cat, RDFS.comment, "A small cat" ) );
+        assertFalse( m.contains( cat, m.getProperty( SKOS + "prefLabel" ) ) );
+        assertFalse( m.contains( cat, m.getProperty( NS + "broader" ) ) );
+        assertFalse( m.contains( m.getResource( NS + "Concept" ), RDFS.label ) );
+
+        Model full = ModelFactory.createDefaultModel();
+        read( full );
+        assertEquals( full.size(), g.getAdded() );
+        assertTrue( g.size() < full.size() );
+    }
+
+    @Test
+    public void testGuessedNamespace() throws Exception {
+        Model m = TermExtractionGraph.createModel();
+        read( m );
+        TermExtractionGraph g = (TermExtractionGraph) m.getGraph();
+
+        // the dropped SKOS triples are counted too, but the example namespace is used most
+        assertEquals( NS, g.getGuessedNamespace() );
+        g.recordGuessedNamespace();
+        assertEquals( NS, m.getNsPrefixURI( TermExtractionGraph.GUESSED_NAMESPACE_PREFIX ) );
+
+        assertNull( new TermExtractionGraph().getGuessedNamespace() );
+    }
+
+    @Test
+    public void testDuplicatesCountedOnce() throws Exception {
+        Model m = TermExtractionGraph.createModel();
+        read( m );
+        TermExtractionGraph g = (TermExtractionGraph) m.getGraph();
+        long added = g.getAdded();
+        long size = g.size();
+
+        // reading the same input again adds no new triples, kept or dropped
+        read( m );
+        assertEquals( added, g.getAdded() );
+        assertEquals( size, g.size() );
+
+        // so repeated SKOS triples cannot outweigh the example namespace
+        Model skos = ModelFactory.createDefaultModel();
+        Resource c = skos.createResource( "http://example.org/other#c" );
+        Property note = skos.createProperty( "http://example.org/other#note" );
+        c.addProperty( note, "n" );
+        for (int i = 0; i < 1000; i++) {
+            g.add( skos.listStatements().next().asTriple() );
+        }
+        assertEquals( added + 1, g.getAdded() );
+        assertEquals( NS, g.getGuessedNamespace() );
+    }
+
+    @Test
+    public void testFingerprintSet() {
+        TermExtractionGraph.FingerprintSet fs = new TermExtractionGraph.FingerprintSet();
+        for (long i = 1; i <= 5000; i++) {
+            assertTrue( fs.add( TermExtractionGraph.mix( i ) ) );
+        }
+        for (long i = 1; i <= 5000; i++) {
+            assertFalse( fs.add( TermExtractionGraph.mix( i ) ) );
+        }
+        assertTrue( fs.add( 0 ) );
+        assertFalse( fs.add( 0 ) );
+    }
+
+    /***********************************/
+    /* Internal implementation methods */
+    /***********************************/
+
+    protected void read( Model m ) throws Exception {
+        InputStream in = new FileInputStream( "src/test/resources/terms/scheme.ttl" );
+        try {
+            m.read( in, NS, "Turtle" );
+        }
+        finally {
+            in.close();
+        }
+    }
+}